@@ -0,0 +1,70 @@
+package com.generation.blogpessoal.configuration;
+
+import java.time.Duration;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+@Configuration
+/*Configuração do pool de conexões (HikariCP). A URL, o usuário e a senha continuam nas propriedades spring.datasource.*
+ * de cada perfil; esta Classe define o tamanho do pool, os tempos limite e as propriedades do driver JDBC do MySQL e do
+ * PostgreSQL. Qualquer valor pode ser alterado nas propriedades spring.datasource.hikari.* (por exemplo,
+ * spring.datasource.hikari.maximum-pool-size=20), que são aplicadas depois dos valores definidos aqui.
+ * As métricas do pool (hikaricp.connections.active, .idle, .pending, .acquire, .usage...) são registradas pelo Spring
+ * Boot Actuator com a tag pool=blogpessoal e ficam disponíveis nos endpoints /actuator/metrics e /actuator/prometheus.*/
+public class DataSourceConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariDataSource dataSource(DataSourceProperties properties) {
+
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+
+		int tamanho = Runtime.getRuntime().availableProcessors() * 2 + 1;
+		/*Fórmula sugerida pelo HikariCP: (núcleos * 2) + 1. Um pool maior não aumenta a vazão, porque o Banco de dados
+		 * também tem um número limitado de núcleos, e as requisições excedentes esperam na fila do pool.*/
+
+		dataSource.setPoolName("blogpessoal");
+		dataSource.setMaximumPoolSize(tamanho);
+		dataSource.setMinimumIdle(tamanho);
+		/*Pool de tamanho fixo: as conexões são abertas na inicialização e não precisam ser criadas em um pico de acessos.*/
+		dataSource.setConnectionTimeout(Duration.ofSeconds(10).toMillis());
+		dataSource.setValidationTimeout(Duration.ofSeconds(3).toMillis());
+		dataSource.setLeakDetectionThreshold(Duration.ofMinutes(1).toMillis());
+		/*Uma conexão retirada do pool e não devolvida em 1 minuto gera um aviso no log com o ponto do código que a retirou.
+		 * A exportação de postagens (/postagens/export) de uma tabela muito grande pode passar desse tempo.*/
+
+		String url = properties.determineUrl();
+
+		if (url != null && url.startsWith("jdbc:mysql:")) {
+			dataSource.addDataSourceProperty("cachePrepStmts", "true");
+			dataSource.addDataSourceProperty("prepStmtCacheSize", "250");
+			dataSource.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+			dataSource.addDataSourceProperty("useServerPrepStmts", "true");
+			dataSource.addDataSourceProperty("rewriteBatchedStatements", "true");
+			dataSource.addDataSourceProperty("cacheResultSetMetadata", "true");
+			dataSource.addDataSourceProperty("cacheServerConfiguration", "true");
+			dataSource.addDataSourceProperty("elideSetAutoCommits", "true");
+			dataSource.addDataSourceProperty("maintainTimeStats", "false");
+			/*useServerPrepStmts e cachePrepStmts: cada instrução SQL é preparada pelo MySQL uma única vez por conexão e
+			 * reaproveitada, em vez de ser analisada a cada consulta. rewriteBatchedStatements transforma os INSERTs de um
+			 * lote (importação de postagens) em um único INSERT com vários VALUES.*/
+		} else if (url != null && url.startsWith("jdbc:postgresql:")) {
+			dataSource.addDataSourceProperty("prepareThreshold", "1");
+			dataSource.addDataSourceProperty("preparedStatementCacheQueries", "256");
+			dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", "5");
+			dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+			/*prepareThreshold=1: a instrução passa a ser preparada no servidor (e guardada no cache da conexão) já na
+			 * primeira execução, em vez da quinta. reWriteBatchedInserts tem o mesmo papel do rewriteBatchedStatements do
+			 * MySQL. Com um PgBouncer em modo transaction, prepareThreshold deve ser 0.*/
+		}
+
+		return dataSource;
+
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.generation.blogpessoal.configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+@Configuration
+@ConditionalOnProperty(name = "blogpessoal.threads.virtuais", havingValue = "true")
+/*Com a propriedade blogpessoal.threads.virtuais=true, cada requisição do Tomcat e cada tarefa @Async (e as requisições
+ * assíncronas do Spring MVC) são executadas em uma thread virtual, em vez de ocuparem uma das threads do grupo fixo do
+ * Tomcat (200 por padrão). Quase todo o tempo de uma requisição é gasto esperando o Banco de dados ou o BCrypt, e uma
+ * thread virtual que espera libera a thread do sistema operacional para outra requisição.
+ * As threads virtuais só existem a partir do Java 21. Como o projeto é compilado para o Java 17, elas são criadas por
+ * reflexão, e a aplicação não inicia se a propriedade estiver habilitada em uma versão anterior do Java.
+ * Os limites continuam valendo: o pool do HikariCP limita as consultas simultâneas ao Banco de dados e o
+ * BoundedPasswordEncoder limita as criptografias de senha simultâneas, que continuam em threads comuns.*/
+public class ThreadsVirtuaisConfig {
+
+	@Bean
+	TomcatProtocolHandlerCustomizer<?> protocolHandlerThreadsVirtuais() {
+		return protocolHandler -> protocolHandler.setExecutor(threadsVirtuais("tomcat-virtual-"));
+	}
+
+	@Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+			AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+	AsyncTaskExecutor applicationTaskExecutor() {
+		return new TaskExecutorAdapter(threadsVirtuais("async-virtual-"));
+		/*Substitui o grupo de threads criado pelo Spring Boot (applicationTaskExecutor), usado pelos Métodos @Async e
+		 * pelas respostas assíncronas do Spring MVC.*/
+	}
+
+	static ExecutorService threadsVirtuais(String prefixo) {
+
+		try {
+
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			Object virtual = Thread.class.getMethod("ofVirtual").invoke(null);
+			virtual = builder.getMethod("name", String.class, long.class).invoke(virtual, prefixo, 0L);
+			ThreadFactory fabrica = (ThreadFactory) builder.getMethod("factory").invoke(virtual);
+			/*Equivale a Thread.ofVirtual().name(prefixo, 0).factory(): as threads recebem nomes numerados, que aparecem
+			 * nos logs e nos thread dumps.*/
+
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+					.invoke(null, fabrica);
+
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(
+					"A propriedade blogpessoal.threads.virtuais=true exige o Java 21 ou superior (versão atual: "
+							+ Runtime.version().feature() + ")", e);
+		}
+
+	}
+
+}
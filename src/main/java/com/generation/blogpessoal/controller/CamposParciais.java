@@ -0,0 +1,63 @@
+package com.generation.blogpessoal.controller;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.generation.blogpessoal.model.Pagina;
+
+/*Parâmetro fields (sparse fieldsets): o cliente informa, separados por vírgula, os atributos que deseja receber (por
+ * exemplo, GET /postagens?fields=id,titulo,data). Os campos informados são usados tanto no JSON da resposta quanto no
+ * SELECT, através dos repositórios PostagemCamposRepository e TemaCamposRepository.*/
+final class CamposParciais {
+
+	private CamposParciais() { }
+
+	static Set<String> ler(String fields, List<String> permitidos) {
+		/*Retorna os campos solicitados na ordem de permitidos, para que a mesma lista de campos, escrita em qualquer
+		 * ordem, gere sempre o mesmo JSON e o mesmo ETag. Um campo desconhecido gera o HTTP Status 400 BAD_REQUEST.*/
+
+		Set<String> solicitados = new LinkedHashSet<>();
+
+		for (String campo : fields.split(",")) {
+
+			campo = campo.trim();
+
+			if (campo.isEmpty())
+				continue;
+
+			if (!permitidos.contains(campo))
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Campo inválido: " + campo + ". Campos disponíveis: " + String.join(",", permitidos));
+
+			solicitados.add(campo);
+
+		}
+
+		if (solicitados.isEmpty())
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe ao menos um campo em fields!");
+
+		Set<String> ordenados = new LinkedHashSet<>(permitidos);
+		ordenados.retainAll(solicitados);
+
+		return ordenados;
+
+	}
+
+	static String etag(List<Map<String, Object>> linhas) {
+		/*O ETag de uma resposta parcial é calculado a partir dos próprios valores enviados (os nomes e os valores dos
+		 * campos solicitados), então duas listas de campos diferentes nunca compartilham o mesmo ETag.*/
+		return RespostaCondicional.etag(linhas.stream().map(Map::toString));
+	}
+
+	static String etag(Pagina<Map<String, Object>> pagina) {
+		return RespostaCondicional.etag(Stream.concat(pagina.getConteudo().stream().map(Map::toString),
+				Stream.of(String.valueOf(pagina.getProximo()))));
+	}
+
+}
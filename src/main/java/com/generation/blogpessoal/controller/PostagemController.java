@@ -1,27 +1,61 @@
 package com.generation.blogpessoal.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.stream.Collectors;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.generation.blogpessoal.model.CursorPaginacao;
+import com.generation.blogpessoal.model.Pagina;
 import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemAtualizacao;
+import com.generation.blogpessoal.model.ResultadoConsultaLote;
+import com.generation.blogpessoal.model.ResultadoImportacao;
+import com.generation.blogpessoal.model.VersaoPostagem;
+import com.generation.blogpessoal.repository.PostagemCamposRepository;
 import com.generation.blogpessoal.repository.PostagemRepository;
-import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.service.BuscaPostagemService;
+import com.generation.blogpessoal.service.ExportacaoPostagemService;
+import com.generation.blogpessoal.service.ImportacaoPostagemService;
+import com.generation.blogpessoal.service.PostagemCacheService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @RestController /*deﬁne que a Classe é do tipo RestController, que receberá requisições que serão compostas por:
@@ -44,36 +78,135 @@ public class PostagemController {
 		private PostagemRepository postagemRepository;
 		
 		@Autowired
-		private TemaRepository temaRepository;
+		private BuscaPostagemService buscaPostagemService;
+		
+		@Autowired
+		private ImportacaoPostagemService importacaoPostagemService;
+		
+		@Autowired
+		private ExportacaoPostagemService exportacaoPostagemService;
+		
+		@Autowired
+		private PostagemCacheService postagemCacheService;
+		
+		@Value("${blogpessoal.postagens.consulta-lote.maximo:100}")
+		private int maximoIdsLote;
 		
 		
 		@GetMapping //mapeia todas as Requisições HTTP GET, enviadas para um endereço específico, chamado endpoint, dentro do Recurso Postagem
-		public ResponseEntity<List<Postagem>> getAll(){ 
+		public ResponseEntity<Pagina<Postagem>> getAll(@RequestParam(required = false) String cursor,
+				@RequestParam(defaultValue = Pagina.TAMANHO_PADRAO_PARAMETRO) int tamanho, ServletWebRequest request){ 
 			/* O método ResponseEntity é uma classe do Spring Framework que representa toda a 
 		resposta HTTP, incluindo o status, os cabeçalhos e o corpo da resposta. Ele é muito útil para controlar de forma detalhada o que 
 		será retornado ao cliente em uma aplicação web.*/
-			/* public ResponseEntity<List<Postagem>> getAll(): Este é o método que será executado quando uma requisição GET for enviada para o
+			/* public ResponseEntity<Pagina<Postagem>> getAll(): Este é o método que será executado quando uma requisição GET for enviada para o
 			 *  endpoint mapeado.
-		     * ResponseEntity<List<Postagem>>: O método retorna um ResponseEntity contendo uma lista de objetos Postagem. Isso permite controlar
-		     *  a resposta HTTP de forma detalhada.
-		     * getAll(): Nome do método, que indica que ele retorna todas as postagens.*/
+		     * Pagina<Postagem>: as postagens são devolvidas em páginas ordenadas por (data, id). O parâmetro tamanho define quantas
+		     *  postagens vêm em cada página (limitado a Pagina.TAMANHO_MAXIMO) e o parâmetro cursor, recebido no atributo proximo da
+		     *  página anterior, indica a partir de onde a próxima página deve começar.*/
+
+			int limite = Pagina.tamanhoValido(tamanho);
+			Pageable janela = PageRequest.of(0, limite + 1);
+			CursorPaginacao posicao = cursor == null ? null : CursorPaginacao.decodificar(cursor);
+
+			boolean conferida = RespostaCondicional.condicional(request);
+
+			if (conferida && RespostaCondicional.naoModificado(request, RespostaCondicional.etagDasVersoes(Pagina.de(
+					posicao == null ? postagemRepository.findVersoesPrimeiraPagina(janela)
+							: postagemRepository.findVersoesPaginaApos(posicao.getData(), posicao.getId(), janela),
+					limite, versao -> CursorPaginacao.de(versao).codificar()))))
+				return null;
+			/*Se o ETag enviado pelo cliente (If-None-Match) for igual ao da página atual, a resposta é 304 Not Modified. A
+			 * página é conferida apenas com as versões das postagens (findVersoes...), sem carregar as postagens.*/
 
-			return ResponseEntity.ok(postagemRepository.findAll());
+			List<Postagem> linhas = posicao == null ? postagemRepository.findPrimeiraPagina(janela)
+					: postagemRepository.findPaginaApos(posicao.getData(), posicao.getId(), janela);
 
-		    /* postagemRepository.findAll(): Este método do repositório (postagemRepository) é chamado para buscar todas as postagens no banco
-		     * de dados. Ele retorna uma lista de objetos Postagem.		     
-		     * ResponseEntity.ok(...): Cria uma resposta HTTP com status 200 OK e inclui a lista de postagens no corpo da resposta.*/
+			Pagina<Postagem> pagina = Pagina.de(linhas, limite, postagem -> CursorPaginacao.de(postagem).codificar());
+
+			if (!conferida && RespostaCondicional.naoModificado(request, RespostaCondicional.etag(pagina)))
+				return null;
+			/*Sem If-None-Match, o ETag da página é calculado a partir das postagens já carregadas e enviado na resposta.*/
+
+			return ResponseEntity.ok(pagina);
+
+		    /* É buscada uma linha a mais do que o tamanho da página: se ela existir, Pagina.de(...) gera o cursor da próxima página.
+		     * ResponseEntity.ok(...): Cria uma resposta HTTP com status 200 OK e inclui a página de postagens no corpo da resposta.*/
 
 		}
 		@GetMapping("/{id}") /*Esta anotação indica que o método getById será chamado quando uma requisição HTTP GET for feita para a URL que 
 		contém um parâmetro {id}. Por exemplo, se a URL for /postagens/1, o valor 1 será passado como parâmetro id.*/
-		public ResponseEntity<Postagem> getById(@PathVariable Long id) { /*Método getById: Este método recebe um parâmetro id do tipo Long, que
-		 é extraído da URL graças à anotação @PathVariable.*/
-			return postagemRepository.findById(id) //Este método retorna um Optional<Postagem>, que pode ou não conter uma postagem.
-					.map(resposta -> ResponseEntity.ok(resposta)) /*Se uma postagem for encontrada, ela é mapeada para uma resposta HTTP 200 OK 
-					contendo a postagem.*/
-					.orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build()); /*Se nenhuma postagem for encontrada, retorna uma resposta HTTP
-					 404 NOT FOUND.*/
+		public ResponseEntity<Postagem> getById(@PathVariable Long id, ServletWebRequest request) { /*Método getById: Este método recebe um
+		 parâmetro id do tipo Long, que é extraído da URL graças à anotação @PathVariable.*/
+			Postagem postagem = postagemCacheService.buscar(id); /*A postagem vem do cache das postagens mais acessadas (PostagemCacheService)
+			 e só é buscada no Banco de dados quando não estiver nele. O retorno é null quando a postagem não existe.*/
+
+			if (postagem == null)
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build(); /*Se nenhuma postagem for encontrada, retorna uma resposta HTTP
+				 404 NOT FOUND.*/
+
+			VersaoPostagem versao = VersaoPostagem.de(postagem);
+
+			if (RespostaCondicional.naoModificado(request, RespostaCondicional.etag(Stream.of(versao.assinatura())),
+					versao.getData()))
+				return null;
+			/*Requisição condicional: se o cliente já tem a versão atual (ETag ou Last-Modified), a resposta é 304 Not Modified,
+			 * sem corpo.*/
+
+			return ResponseEntity.ok(postagem); /*Se uma postagem for encontrada, ela é devolvida em uma resposta HTTP 200 OK.*/
+		}
+		@GetMapping(params = "fields") /*GET /postagens?fields=id,titulo,data: a mesma listagem por cursor do getAll, mas cada
+		postagem traz apenas os campos informados (PostagemCamposRepository.CAMPOS), e o SELECT lê apenas as colunas deles.*/
+		public ResponseEntity<Pagina<Map<String, Object>>> getAllCampos(@RequestParam String fields,
+				@RequestParam(required = false) String cursor, @RequestParam(defaultValue = Pagina.TAMANHO_PADRAO_PARAMETRO) int tamanho,
+				ServletWebRequest request){
+			Set<String> campos = CamposParciais.ler(fields, PostagemCamposRepository.CAMPOS);
+			CursorPaginacao apos = cursor == null ? null : CursorPaginacao.decodificar(cursor);
+
+			Pagina<Map<String, Object>> pagina = postagemRepository.findPaginaCampos(campos, null, apos,
+					Pagina.tamanhoValido(tamanho));
+
+			if (RespostaCondicional.naoModificado(request, CamposParciais.etag(pagina)))
+				return null;
+
+			return ResponseEntity.ok(pagina);
+		}
+		@GetMapping(value = "/{id}", params = "fields")
+		public ResponseEntity<Map<String, Object>> getByIdCampos(@PathVariable Long id, @RequestParam String fields,
+				ServletWebRequest request) {
+			Set<String> campos = CamposParciais.ler(fields, PostagemCamposRepository.CAMPOS);
+			Optional<VersaoPostagem> versao = postagemRepository.findVersaoById(id);
+
+			if (versao.isEmpty())
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+
+			if (RespostaCondicional.naoModificado(request,
+					RespostaCondicional.etag(Stream.of(versao.get().assinatura(), String.join(",", campos))),
+					versao.get().getData()))
+				return null;
+			/*A mesma requisição condicional do getById; a lista de campos entra no ETag, porque cada lista gera um JSON
+			 * diferente para a mesma versão da postagem.*/
+
+			return postagemRepository.findCamposById(campos, id)
+					.map(resposta -> ResponseEntity.ok(resposta))
+					.orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+		}
+		@GetMapping("/lote") /*GET /postagens/lote?ids=3,1,2: várias postagens em uma única requisição, em vez de uma requisição
+		GET /postagens/{id} para cada uma (cada requisição repete a validação do token e uma ida ao Banco de dados).*/
+		public ResponseEntity<ResultadoConsultaLote> getLote(@RequestParam List<Long> ids, ServletWebRequest request) {
+			ResultadoConsultaLote resultado = consultarLote(ids);
+
+			if (RespostaCondicional.naoModificado(request, RespostaCondicional.etag(Stream.concat(
+					resultado.getPostagens().stream().map(postagem -> VersaoPostagem.de(postagem).assinatura()),
+					resultado.getNaoEncontradas().stream().map(String::valueOf)))))
+				return null;
+
+			return ResponseEntity.ok(resultado);
+		}
+		@PostMapping("/lote/consulta") /*A mesma consulta, com os ids enviados no corpo da requisição (um array JSON), para
+		listas longas demais para a URL.*/
+		public ResponseEntity<ResultadoConsultaLote> postLoteConsulta(@RequestBody List<Long> ids) {
+			return ResponseEntity.ok(consultarLote(ids));
 		}
 		@GetMapping("/titulo/{titulo}")
 		public ResponseEntity<List<Postagem>> GetByTitulo(@PathVariable String titulo){
@@ -81,19 +214,72 @@ public class PostagemController {
 			/*ResponseEntity.ok(postagens): Se a busca for bem-sucedida, o método retorna uma resposta HTTP 200 OK contendo a lista de postagens 
 			 * encontradas.*/
 		}
+		@GetMapping("/busca") /*Busca textual no título e no texto das postagens, através do índice mantido pelo BuscaPostagemService.
+		Os resultados vêm ordenados por relevância e paginados: o atributo proximo de cada página informa a página seguinte.*/
+		public ResponseEntity<Pagina<Postagem>> buscar(@RequestParam String termo,
+				@RequestParam(defaultValue = "0") int pagina, @RequestParam(defaultValue = Pagina.TAMANHO_PADRAO_PARAMETRO) int tamanho){
+			int limite = Pagina.tamanhoValido(tamanho);
+			List<Long> ids = buscaPostagemService.buscar(termo, Math.max(pagina, 0) * limite, limite + 1);
+
+			Map<Long, Postagem> encontradas = postagemRepository.findAllByIdIn(ids).stream()
+					.collect(Collectors.toMap(Postagem::getId, Function.identity()));
+			/*O banco de dados devolve as postagens em qualquer ordem, então elas são reordenadas de acordo com a relevância
+			 * calculada pelo índice. Ids que não existem mais na tabela são descartados.*/
+			List<Postagem> linhas = ids.stream().map(encontradas::get).filter(Objects::nonNull).toList();
+
+			return ResponseEntity.ok(Pagina.de(linhas, limite, postagem -> String.valueOf(Math.max(pagina, 0) + 1)));
+		}
+		@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+		public void exportar(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+				HttpServletResponse response) throws IOException {
+			/*Envia todas as postagens em NDJSON (um objeto JSON por linha), escritas diretamente na resposta à medida que são
+			 * lidas do Banco de dados. Quando o cliente aceita gzip (cabeçalho Accept-Encoding), a saída é compactada.*/
+			boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+			response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+			response.setCharacterEncoding("UTF-8");
+			response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+			if (gzip)
+				response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+			try (OutputStream saida = gzip ? new GZIPOutputStream(response.getOutputStream(), 8192)
+					: response.getOutputStream()) {
+				exportacaoPostagemService.exportar(saida);
+			}
+		}
 		@PostMapping //Esta anotação indica que o método post será chamado quando uma requisição HTTP POST for feita para o endpoint correspondente
 		public ResponseEntity<Postagem> post(@Valid @RequestBody Postagem postagem){
-			if(temaRepository.existsById(postagem.getTema().getId()))
-				return ResponseEntity.status(HttpStatus.CREATED)
-			/*return ResponseEntity.status(HttpStatus.CREATED)
-					/*O método recebe um parâmetro postagem do tipo Postagem, que é extraído do corpo da requisição HTTP graças à anotação 
-					 * @RequestBody. A anotação @Valid é usada para validar o objeto postagem com base nas anotações de validação presentes na 
-					 * classe Postagem (como @NotBlank e @Size).*/
-
-					.body(postagemRepository.save(postagem));
-			/*postagemRepository.save(postagem): Este método salva a nova postagem no banco de dados. O repositório postagemRepository é
-			 *  responsável por realizar a operação de salvamento.*/
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tema não existe!", null);
+			/*O método recebe um parâmetro postagem do tipo Postagem, que é extraído do corpo da requisição HTTP graças à anotação 
+			 * @RequestBody. A anotação @Valid é usada para validar o objeto postagem com base nas anotações de validação presentes na 
+			 * classe Postagem (como @NotBlank e @Size).*/
+			if (postagem.getTema() == null || postagem.getTema().getId() == null)
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tema não existe!", null);
+			
+			postagem.setId(null);
+			postagem.setVersao(null);
+			/*Sem id e sem versão o save sempre executa um INSERT (persist), sem o SELECT que o merge faria antes.*/
+			
+			Postagem salva;
+			
+			try {
+				salva = postagemRepository.saveAndFlush(postagem);
+			} catch (DataIntegrityViolationException e) {
+				throw chaveEstrangeiraViolada(e);
+			}
+			/*A existência do tema e do usuário não é consultada antes do INSERT: as Chaves Estrangeiras da tabela tb_postagens
+			 * recusam a postagem quando eles não existem, e o erro é devolvido com o HTTP Status 400. saveAndFlush envia o
+			 * INSERT imediatamente, para que o erro aconteça aqui e não no fim da transação.*/
+			
+			buscaPostagemService.indexar(salva); //Mantém o índice de busca atualizado com a nova postagem.
+			return ResponseEntity.status(HttpStatus.CREATED).body(salva);
+		}
+		@PostMapping(value = "/lote", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+		public ResponseEntity<ResultadoImportacao> postLote(HttpServletRequest request) throws IOException {
+			/*Importa várias postagens de uma vez, enviadas como um array JSON ou em NDJSON (um objeto JSON por linha). O corpo
+			 * da requisição é lido diretamente do InputStream, sem ser convertido inteiro em uma lista. A resposta informa
+			 * quantas postagens foram gravadas e, para cada registro rejeitado, a linha e o motivo.*/
+			return ResponseEntity.ok(importacaoPostagemService.importar(request.getInputStream()));
 		}
 		@PutMapping //indica que o Método put(Postagem postagem), responderá a todas as requisições do tipo HTTP PUT,
 		public ResponseEntity<Postagem> put(@Valid @RequestBody Postagem postagem){
@@ -106,16 +292,74 @@ public class PostagemController {
 					encontrada, o método mapeia a resposta para um status HTTP 200 Ok
 						.orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
 						//Se nenhuma postagem for encontrada, retorna uma resposta HTTP 404 NOT FOUND.*/
-			if (postagemRepository.existsById(postagem.getId())) {
+			if (postagem.getVersao() == null)
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O atributo versão é obrigatório!", null);
+			/*A versão enviada deve ser a que o cliente leu da postagem (GET), para que uma alteração feita por outra pessoa
+			 * nesse meio tempo não seja sobrescrita.*/
+			
+			if (postagem.getId() == null)
+				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			
+			if (postagem.getTema() == null || postagem.getTema().getId() == null)
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tema não existe!", null);
+			
+			int alteradas;
+			
+			try {
+				alteradas = postagemRepository.atualizar(postagem);
+			} catch (DataIntegrityViolationException e) {
+				throw chaveEstrangeiraViolada(e);
+			}
+			/*Um único UPDATE ... WHERE id = ? AND versao = ?, sem consultar antes a postagem e o tema: o tema e o usuário são
+			 * conferidos pelas Chaves Estrangeiras.*/
+			
+			if (alteradas == 0) {
+				
+				if (!postagemRepository.existsById(postagem.getId()))
+					return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 				
-				if(temaRepository.existsById(postagem.getTema().getId()))
-					return ResponseEntity.status(HttpStatus.OK)
-							.body(postagemRepository.save(postagem));
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "A postagem foi alterada por outro usuário!", null);
+				/*A consulta extra só acontece quando a atualização falha, para diferenciar a postagem inexistente da versão
+				 * desatualizada.*/
+			}
+			
+			postagemCacheService.invalidar(postagem.getId());
+			Postagem atualizada = postagemRepository.findById(postagem.getId()).orElseThrow();
+			/*A postagem é lida depois do UPDATE, como no PATCH: o corpo enviado traz apenas o id do tema e do usuário, e a
+			 * resposta deve trazer a postagem como ficou gravada, com a nova versão e a nova data.*/
+			buscaPostagemService.indexar(atualizada);
+			return ResponseEntity.status(HttpStatus.OK).body(atualizada);
+		}
+		@PatchMapping("/{id}")
+		public ResponseEntity<Postagem> patch(@PathVariable Long id, @Valid @RequestBody PostagemAtualizacao atualizacao) {
+			/*Atualização parcial: altera apenas o título, o texto e/ou o tema enviados, com um único UPDATE que confere a versão
+			 * (WHERE id = ? AND versao = ?), sem ler a postagem antes. A postagem é lida depois, para ser devolvida na resposta
+			 * e atualizada no índice de busca.*/
+			if (atualizacao.getTema() != null && atualizacao.getTema().getId() == null)
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tema não existe!", null);
+			
+			int alteradas;
+			
+			try {
+				alteradas = postagemRepository.atualizarParcialmente(id, atualizacao);
+			} catch (DataIntegrityViolationException e) {
+				throw chaveEstrangeiraViolada(e);
+			}
+			
+			if (alteradas == 0) {
 				
-				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tema não existe", null);
+				if (!postagemRepository.existsById(id))
+					return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 				
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "A postagem foi alterada por outro usuário!", null);
+				/*Nenhuma linha foi alterada e a postagem existe: a versão enviada não é mais a atual.*/
 			}
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+			
+			postagemCacheService.invalidar(id);
+			Postagem atualizada = postagemRepository.findById(id).orElseThrow();
+			buscaPostagemService.indexar(atualizada);
+			
+			return ResponseEntity.ok(atualizada);
 		}
 		@ResponseStatus(HttpStatus.NO_CONTENT)/* indica que o Método delete(Long id), terá um Status HTTP específico quando a Requisição for 
 		bem sucedida, ou seja, será retornado o HTTP Status NO_CONTENT 🡪 204, ao invés do HTTP Status OK 🡪 200 como resposta padrão do Método.*/
@@ -135,6 +379,60 @@ public class PostagemController {
 			 *  NOT FOUND se a postagem não for encontrada.*/
 			postagemRepository.deleteById(id);
 			//Esta linha de código deleta a postagem do banco de dados usando o ID fornecido.
+			postagemCacheService.invalidar(id);
+			//Remove a postagem do cache das postagens mais acessadas.
+			buscaPostagemService.remover(id);
+			//Remove a postagem do índice de busca.
+		}
+		
+		private ResultadoConsultaLote consultarLote(List<Long> ids) {
+			Set<Long> solicitados = new LinkedHashSet<>(ids);
+			solicitados.remove(null);
+			/*Ids repetidos são consultados (e devolvidos) uma única vez, na posição da primeira ocorrência.*/
+
+			if (solicitados.isEmpty())
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe ao menos um id!");
+
+			if (solicitados.size() > maximoIdsLote)
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Informe no máximo " + maximoIdsLote + " ids por consulta!");
+
+			Map<Long, Postagem> encontradas = postagemRepository.findAllByIdIn(solicitados).stream()
+					.collect(Collectors.toMap(Postagem::getId, Function.identity()));
+			/*Uma única consulta (WHERE id IN ..., com o tema e o usuário no mesmo SELECT). O Banco de dados devolve as linhas em
+			 * qualquer ordem, então elas são reordenadas de acordo com os ids solicitados, como na busca.*/
+
+			List<Postagem> postagens = new ArrayList<>(solicitados.size());
+			List<Long> naoEncontradas = new ArrayList<>();
+
+			for (Long id : solicitados) {
+				Postagem postagem = encontradas.get(id);
+
+				if (postagem == null)
+					naoEncontradas.add(id);
+				else
+					postagens.add(postagem);
+			}
+
+			return new ResultadoConsultaLote(postagens, naoEncontradas);
+		}
+		private static ResponseStatusException chaveEstrangeiraViolada(DataIntegrityViolationException e) {
+			/*Identifica, pelo nome da Chave Estrangeira (definido na Classe Postagem), se o tema ou o usuário informado não
+			 * existe. Outras violações de integridade não são erros do cliente e são lançadas novamente.*/
+			Throwable causa = e;
+			
+			while (causa != null && !(causa instanceof ConstraintViolationException))
+				causa = causa.getCause();
+			
+			String restricao = causa == null ? null : ((ConstraintViolationException) causa).getConstraintName();
+			
+			if (restricao != null && restricao.toLowerCase().contains("fk_postagens_tema"))
+				return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tema não existe!", e);
+			
+			if (restricao != null && restricao.toLowerCase().contains("fk_postagens_usuario"))
+				return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Usuário não existe!", e);
+			
+			throw e;
 		}
 		
 
@@ -0,0 +1,81 @@
+package com.generation.blogpessoal.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.VersaoPostagem;
+
+/*Requisições condicionais (GET com If-None-Match / If-Modified-Since). O ETag é calculado a partir de poucos campos de
+ * cada registro (id, data de atualização, descrição...), nunca a partir do JSON da resposta. Quando o cliente já tem a
+ * versão atual, a resposta é 304 Not Modified, sem corpo.*/
+final class RespostaCondicional {
+
+	private static final String REVALIDAR = CacheControl.noCache().cachePrivate().getHeaderValue();
+	/*private, no-cache: o cliente pode guardar a resposta, mas deve confirmar com o servidor (requisição condicional)
+	 * antes de reutilizá-la. Sem este cabeçalho, o Spring Security envia no-store e os clientes não guardam nada.*/
+
+	private RespostaCondicional() { }
+
+	static String etag(Stream<String> partes) {
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			partes.forEach(parte -> digest.update((parte + "\n").getBytes(StandardCharsets.UTF_8)));
+			return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+	}
+
+	static String etag(Pagina<Postagem> pagina) {
+		/*O ETag de uma página de postagens muda quando qualquer postagem da página (ou o tema e o usuário dela) muda,
+		 * quando uma postagem entra ou sai da página e quando o cursor da próxima página muda.*/
+		return etagDasVersoes(new Pagina<>(pagina.getConteudo().stream().map(VersaoPostagem::de).toList(),
+				pagina.getProximo()));
+	}
+
+	static String etagDasVersoes(Pagina<VersaoPostagem> pagina) {
+		/*O mesmo ETag, calculado a partir das versões da página (consultas findVersoes... do PostagemRepository), antes
+		 * de as postagens serem carregadas.*/
+		return etag(Stream.concat(pagina.getConteudo().stream().map(VersaoPostagem::assinatura),
+				Stream.of(String.valueOf(pagina.getProximo()))));
+	}
+
+	static boolean condicional(ServletWebRequest request) {
+		/*Indica se o cliente enviou um ETag (If-None-Match). Só nesse caso vale a pena consultar as versões da página
+		 * antes das postagens: sem o ETag, a resposta será sempre 200 OK e a consulta a mais seria desperdiçada.*/
+		return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+	}
+
+	static boolean naoModificado(ServletWebRequest request, String etag) {
+		return naoModificado(request, etag, null);
+	}
+
+	static boolean naoModificado(ServletWebRequest request, String etag, LocalDateTime ultimaAlteracao) {
+		/*Retorna true (e a resposta já fica com o HTTP Status 304) quando o ETag enviado em If-None-Match for igual ao atual
+		 * ou, sem If-None-Match, quando If-Modified-Since não for anterior à última alteração. Em ambos os casos os cabeçalhos
+		 * ETag e Last-Modified são adicionados à resposta.*/
+
+		if (request.getResponse() != null)
+			request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDAR);
+
+		long modificacao = ultimaAlteracao == null ? -1
+				: ultimaAlteracao.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+		return request.checkNotModified(etag, modificacao);
+
+	}
+
+}
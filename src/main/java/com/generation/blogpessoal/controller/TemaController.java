@@ -1,9 +1,16 @@
 package com.generation.blogpessoal.controller;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,12 +21,26 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.generation.blogpessoal.model.CursorPaginacao;
+import com.generation.blogpessoal.model.ExclusaoTema;
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
 import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.TemaResumo;
+import com.generation.blogpessoal.model.VersaoPostagem;
+import com.generation.blogpessoal.model.VersaoTema;
+import com.generation.blogpessoal.repository.PostagemCamposRepository;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaCamposRepository;
 import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.service.PostagemCacheService;
+import com.generation.blogpessoal.service.TemaService;
 
 import jakarta.validation.Valid;
 
@@ -31,23 +52,128 @@ public class TemaController {
     @Autowired
     private TemaRepository temaRepository;
     
+    @Autowired
+    private PostagemRepository postagemRepository;
+    
+    @Autowired
+    private PostagemCacheService postagemCacheService;
+    
+    @Autowired
+    private TemaService temaService;
+    
     @GetMapping
-    public ResponseEntity<List<Tema>> getAll(){
-        return ResponseEntity.ok(temaRepository.findAll());
+    public ResponseEntity<List<TemaResumo>> getAll(ServletWebRequest request){
+        return responder(temaRepository.findAllVersoes(), temaRepository::findAllResumos, request);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Tema> getById(@PathVariable Long id){
-        return temaRepository.findById(id)
-            .map(resposta -> ResponseEntity.ok(resposta))
-            .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    public ResponseEntity<TemaResumo> getById(@PathVariable Long id, ServletWebRequest request){
+        Optional<TemaResumo> tema = temaRepository.findResumoById(id);
+        
+        if (tema.isEmpty())
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        
+        if (RespostaCondicional.naoModificado(request, RespostaCondicional.etag(Stream.of(assinatura(tema.get())))))
+            return null;
+        
+        return ResponseEntity.ok(tema.get());
     }
     
     @GetMapping("/descricao/{descricao}")
-    public ResponseEntity<List<Tema>> getByTitle(@PathVariable 
-    String descricao){
-        return ResponseEntity.ok(temaRepository
-            .findAllByDescricaoContainingIgnoreCase(descricao));
+    public ResponseEntity<List<TemaResumo>> getByTitle(@PathVariable 
+    String descricao, ServletWebRequest request){
+        return responder(temaRepository.findAllVersoesByDescricao(descricao),
+            () -> temaRepository.findAllResumosByDescricao(descricao), request);
+    }
+    
+    @GetMapping("/{id}/postagens")
+    public ResponseEntity<Pagina<Postagem>> getPostagens(@PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Pagina.TAMANHO_PADRAO_PARAMETRO) int tamanho, ServletWebRequest request){
+        /*As postagens de um tema são entregues em páginas ordenadas por (data, id), com o mesmo cursor usado
+         * em GET /postagens.*/
+        int limite = Pagina.tamanhoValido(tamanho);
+        Pageable janela = PageRequest.of(0, limite + 1);
+        CursorPaginacao posicao = cursor == null ? null : CursorPaginacao.decodificar(cursor);
+        
+        boolean conferida = false;
+        
+        if (RespostaCondicional.condicional(request)) {
+            List<VersaoPostagem> versoes = posicao == null ? postagemRepository.findVersoesPrimeiraPaginaPorTema(id, janela)
+                : postagemRepository.findVersoesPaginaPorTemaApos(id, posicao.getData(), posicao.getId(), janela);
+            conferida = !versoes.isEmpty();
+            
+            if (conferida && RespostaCondicional.naoModificado(request, RespostaCondicional.etagDasVersoes(
+                    Pagina.de(versoes, limite, versao -> CursorPaginacao.de(versao).codificar()))))
+                return null;
+        }
+        /*Com If-None-Match, a página é conferida primeiro com as versões das postagens, e a resposta 304 Not Modified
+         * é enviada sem carregar as postagens. Uma página vazia segue o caminho normal, que confere se o tema existe.*/
+        
+        List<Postagem> linhas = posicao == null ? postagemRepository.findPrimeiraPaginaPorTema(id, janela)
+            : postagemRepository.findPaginaPorTemaApos(id, posicao.getData(), posicao.getId(), janela);
+        
+        if (linhas.isEmpty() && !temaRepository.existsById(id))
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        /*A existência do tema só é verificada quando a página vem vazia, para não gastar uma consulta a mais
+         * nas páginas com conteúdo.*/
+        
+        Pagina<Postagem> pagina = Pagina.de(linhas, limite, postagem -> CursorPaginacao.de(postagem).codificar());
+        
+        if (!conferida && RespostaCondicional.naoModificado(request, RespostaCondicional.etag(pagina)))
+            return null;
+        
+        return ResponseEntity.ok(pagina);
+    }
+    
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllCampos(@RequestParam String fields,
+            ServletWebRequest request){
+        /*GET /temas?fields=id,descricao: apenas os campos informados (TemaCamposRepository.CAMPOS). Sem
+         * quantidadePostagens, a consulta não faz o JOIN com tb_postagens.*/
+        return responderCampos(temaRepository.findCampos(
+                CamposParciais.ler(fields, TemaCamposRepository.CAMPOS), null), request);
+    }
+    
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getByIdCampos(@PathVariable Long id, @RequestParam String fields,
+            ServletWebRequest request){
+        Optional<Map<String, Object>> tema = temaRepository.findCamposById(
+                CamposParciais.ler(fields, TemaCamposRepository.CAMPOS), id);
+        
+        if (tema.isEmpty())
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        
+        if (RespostaCondicional.naoModificado(request, CamposParciais.etag(List.of(tema.get()))))
+            return null;
+        
+        return ResponseEntity.ok(tema.get());
+    }
+    
+    @GetMapping(value = "/descricao/{descricao}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getByTitleCampos(@PathVariable String descricao,
+            @RequestParam String fields, ServletWebRequest request){
+        return responderCampos(temaRepository.findCampos(
+                CamposParciais.ler(fields, TemaCamposRepository.CAMPOS), descricao), request);
+    }
+    
+    @GetMapping(value = "/{id}/postagens", params = "fields")
+    public ResponseEntity<Pagina<Map<String, Object>>> getPostagensCampos(@PathVariable Long id,
+            @RequestParam String fields, @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Pagina.TAMANHO_PADRAO_PARAMETRO) int tamanho, ServletWebRequest request){
+        Set<String> campos = CamposParciais.ler(fields, PostagemCamposRepository.CAMPOS);
+        CursorPaginacao apos = cursor == null ? null : CursorPaginacao.decodificar(cursor);
+        
+        Pagina<Map<String, Object>> pagina = postagemRepository.findPaginaCampos(campos, id, apos,
+                Pagina.tamanhoValido(tamanho));
+        
+        if (pagina.getConteudo().isEmpty() && !temaRepository.existsById(id))
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        
+        if (RespostaCondicional.naoModificado(request, CamposParciais.etag(pagina)))
+            return null;
+        
+        return ResponseEntity.ok(pagina);
     }
     
     @PostMapping
@@ -59,20 +185,64 @@ public class TemaController {
     @PutMapping
     public ResponseEntity<Tema> put(@Valid @RequestBody Tema tema){
         return temaRepository.findById(tema.getId())
-            .map(resposta -> ResponseEntity.status(HttpStatus.CREATED)
-            .body(temaRepository.save(tema)))
+            .map(resposta -> {
+                Tema atualizado = temaRepository.save(tema);
+                postagemCacheService.invalidarTodas();
+                /*A descrição do tema aparece dentro das postagens guardadas no cache.*/
+                return ResponseEntity.status(HttpStatus.CREATED).body(atualizado);
+            })
             .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
     
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        Optional<Tema> tema = temaRepository.findById(id);
-        
-        if(tema.isEmpty())
+        /*O tema e as postagens dele são apagados pelo TemaService em lotes, com DELETEs em massa, sem carregar o tema
+         * nem as postagens.*/
+        if (!temaService.excluir(id))
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+    
+    @DeleteMapping(value = "/{id}", params = "segundoPlano=true")
+    public ResponseEntity<ExclusaoTema> deleteEmSegundoPlano(@PathVariable Long id) {
+        /*DELETE /temas/{id}?segundoPlano=true: para temas com muitas postagens. A resposta (HTTP Status 202 ACCEPTED) é
+         * enviada assim que a exclusão começa, e o andamento pode ser consultado no endereço do cabeçalho Location.*/
+        return temaService.excluirEmSegundoPlano(id)
+            .map(exclusao -> ResponseEntity.accepted()
+                .location(URI.create("/temas/exclusoes/" + id))
+                .body(exclusao))
+            .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+    
+    @GetMapping("/exclusoes/{id}")
+    public ResponseEntity<ExclusaoTema> getExclusao(@PathVariable Long id) {
+        return temaService.andamento(id)
+            .map(exclusao -> ResponseEntity.ok(exclusao))
+            .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+    
+    private static ResponseEntity<List<TemaResumo>> responder(List<VersaoTema> versoes,
+            Supplier<List<TemaResumo>> temas, ServletWebRequest request) {
+        /*As listas de temas têm apenas ETag (não há data de atualização nos temas). O ETag é calculado a partir das
+         * versões dos temas (VersaoTema), antes da consulta de resumo. Se o cliente já tem a lista atual
+         * (If-None-Match), a resposta é 304 Not Modified e as postagens de cada tema não chegam a ser contadas.*/
+        if (RespostaCondicional.naoModificado(request,
+                RespostaCondicional.etag(versoes.stream().map(VersaoTema::assinatura))))
+            return null;
+        
+        return ResponseEntity.ok(temas.get());
+    }
+    
+    private static ResponseEntity<List<Map<String, Object>>> responderCampos(List<Map<String, Object>> temas,
+            ServletWebRequest request) {
+        if (RespostaCondicional.naoModificado(request, CamposParciais.etag(temas)))
+            return null;
         
-        temaRepository.deleteById(id);              
+        return ResponseEntity.ok(temas);
+    }
+    
+    private static String assinatura(TemaResumo tema) {
+        return tema.getId() + "|" + tema.getDescricao() + "|" + tema.getQuantidadePostagens();
     }
 
 }
\ No newline at end of file
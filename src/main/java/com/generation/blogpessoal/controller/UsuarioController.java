@@ -2,22 +2,39 @@ package com.generation.blogpessoal.controller;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.generation.blogpessoal.model.CursorPaginacao;
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
 import com.generation.blogpessoal.model.Usuario;
 import com.generation.blogpessoal.model.UsuarioLogin;
+import com.generation.blogpessoal.model.UsuarioResumo;
+import com.generation.blogpessoal.model.VersaoPostagem;
+import com.generation.blogpessoal.repository.PostagemRepository;
 import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.security.CriptografiaOcupadaException;
+import com.generation.blogpessoal.security.UserDetailsImpl;
 import com.generation.blogpessoal.service.UsuarioService;
 
 import jakarta.validation.Valid;
@@ -32,21 +49,62 @@ public class UsuarioController {
 
 	@Autowired
 	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
 	
-	@GetMapping("/all")
-	public ResponseEntity <List<Usuario>> getAll(){
-		
-		return ResponseEntity.ok(usuarioRepository.findAll());
-		
+	@GetMapping
+	public ResponseEntity<Pagina<UsuarioResumo>> getAll(@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = Pagina.TAMANHO_PADRAO_PARAMETRO) int tamanho,
+			@RequestParam(defaultValue = "false") boolean contagem, ServletWebRequest request) {
+		/*Substitui o antigo GET /usuarios/all, que carregava a tabela inteira com as senhas e as postagens de cada
+		 * usuário. Os usuários são entregues em páginas ordenadas pelo id, e o cursor é o id do último usuário da página.
+		 * Com contagem=true, cada usuário traz a quantidade de postagens (quantidadePostagens).*/
+		int limite = Pagina.tamanhoValido(tamanho);
+		Pageable janela = PageRequest.of(0, limite + 1);
+		Long apos = cursor == null ? 0L : idDoCursor(cursor);
+
+		List<UsuarioResumo> linhas = contagem
+				? usuarioRepository.findResumosComContagemApos(apos, janela)
+				: usuarioRepository.findResumosApos(apos, janela);
+
+		Pagina<UsuarioResumo> pagina = Pagina.de(linhas, limite, usuario -> usuario.getId().toString());
+
+		if (RespostaCondicional.naoModificado(request, RespostaCondicional.etag(Stream.concat(
+				Stream.of(String.valueOf(pagina.getProximo())),
+				pagina.getConteudo().stream().map(UsuarioController::assinatura)))))
+			return null;
+
+		return ResponseEntity.ok(pagina);
+
 	}
 
 	@GetMapping("/{id}")
-	public ResponseEntity<Usuario> getById(@PathVariable Long id) {
-		return usuarioRepository.findById(id)
+	public ResponseEntity<UsuarioResumo> getById(@PathVariable Long id,
+			@RequestParam(defaultValue = "false") boolean contagem) {
+		return (contagem ? usuarioRepository.findResumoComContagemById(id) : usuarioRepository.findResumoById(id))
 			.map(resposta -> ResponseEntity.ok(resposta))
 			.orElse(ResponseEntity.notFound().build());
 	}
 	
+	@GetMapping("/{id}/postagens")
+	public ResponseEntity<Pagina<Postagem>> getPostagens(@PathVariable Long id,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = Pagina.TAMANHO_PADRAO_PARAMETRO) int tamanho, ServletWebRequest request) {
+		/*As postagens de um usuário, das mais recentes para as mais antigas, em páginas com o mesmo cursor usado em
+		 * GET /postagens.*/
+		return paginaDoUsuario(id, cursor, tamanho, request);
+	}
+
+	@GetMapping("/meu-feed")
+	public ResponseEntity<Pagina<Postagem>> getMeuFeed(@AuthenticationPrincipal UserDetailsImpl usuarioAutenticado,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = Pagina.TAMANHO_PADRAO_PARAMETRO) int tamanho, ServletWebRequest request) {
+		/*As postagens do usuário autenticado. O id vem do usuário carregado pelo JwtAuthFilter (ou pelo HTTP Basic), que
+		 * fica no cache de autenticação, então não há uma consulta a mais para descobrir quem é o usuário.*/
+		return paginaDoUsuario(usuarioAutenticado.getId(), cursor, tamanho, request);
+	}
+	
 	@PostMapping("/logar")
 	public ResponseEntity<UsuarioLogin> autenticarUsuario(@RequestBody Optional<UsuarioLogin> usuarioLogin){
 		
@@ -57,21 +115,87 @@ public class UsuarioController {
     
 
 	@PostMapping("/cadastrar")
-	public ResponseEntity<Usuario> postUsuario(@RequestBody @Valid Usuario usuario) {
+	public ResponseEntity<UsuarioResumo> postUsuario(@RequestBody @Valid Usuario usuario) {
 
 		return usuarioService.cadastrarUsuario(usuario)
-			.map(resposta -> ResponseEntity.status(HttpStatus.CREATED).body(resposta))
+			.map(resposta -> ResponseEntity.status(HttpStatus.CREATED).body(resumo(resposta)))
 			.orElse(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
 
 	}
 
 	@PutMapping("/atualizar")
-	public ResponseEntity<Usuario> putUsuario(@Valid @RequestBody Usuario usuario) {
+	public ResponseEntity<UsuarioResumo> putUsuario(@Valid @RequestBody Usuario usuario) {
 		
 		return usuarioService.atualizarUsuario(usuario)
-			.map(resposta -> ResponseEntity.status(HttpStatus.OK).body(resposta))
+			.map(resposta -> ResponseEntity.status(HttpStatus.OK).body(resumo(resposta)))
 			.orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
 		
 	}
 
+	@ExceptionHandler(CriptografiaOcupadaException.class)
+	public ResponseEntity<Void> criptografiaOcupada(CriptografiaOcupadaException e) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getTentarNovamente())).build();
+		/*O cadastro, a atualização e o login usam o BCrypt. Quando a fila dele está cheia, a resposta é o HTTP Status 503
+		 * com o cabeçalho Retry-After, como no HTTP Basic (CriptografiaOcupadaEntryPoint).*/
+	}
+
+	private ResponseEntity<Pagina<Postagem>> paginaDoUsuario(Long id, String cursor, int tamanho,
+			ServletWebRequest request) {
+
+		int limite = Pagina.tamanhoValido(tamanho);
+		Pageable janela = PageRequest.of(0, limite + 1);
+		CursorPaginacao posicao = cursor == null ? null : CursorPaginacao.decodificar(cursor);
+
+		boolean conferida = false;
+
+		if (RespostaCondicional.condicional(request)) {
+			List<VersaoPostagem> versoes = posicao == null
+					? postagemRepository.findVersoesPrimeiraPaginaPorUsuario(id, janela)
+					: postagemRepository.findVersoesPaginaPorUsuarioApos(id, posicao.getData(), posicao.getId(), janela);
+			conferida = !versoes.isEmpty();
+
+			if (conferida && RespostaCondicional.naoModificado(request, RespostaCondicional.etagDasVersoes(
+					Pagina.de(versoes, limite, versao -> CursorPaginacao.de(versao).codificar()))))
+				return null;
+		}
+		/*Como em /temas/{id}/postagens: com If-None-Match, a resposta 304 Not Modified é decidida pelas versões das
+		 * postagens, sem carregá-las. Uma página vazia segue o caminho normal, que confere se o usuário existe.*/
+
+		List<Postagem> linhas = posicao == null ? postagemRepository.findPrimeiraPaginaPorUsuario(id, janela)
+				: postagemRepository.findPaginaPorUsuarioApos(id, posicao.getData(), posicao.getId(), janela);
+
+		if (linhas.isEmpty() && !usuarioRepository.existsById(id))
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		/*A existência do usuário só é verificada quando a página vem vazia.*/
+
+		Pagina<Postagem> pagina = Pagina.de(linhas, limite, postagem -> CursorPaginacao.de(postagem).codificar());
+
+		if (!conferida && RespostaCondicional.naoModificado(request, RespostaCondicional.etag(pagina)))
+			return null;
+
+		return ResponseEntity.ok(pagina);
+
+	}
+
+	private static Long idDoCursor(String cursor) {
+
+		try {
+			return Long.valueOf(cursor);
+		} catch (NumberFormatException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido!", e);
+		}
+
+	}
+
+	private static UsuarioResumo resumo(Usuario usuario) {
+		return new UsuarioResumo(usuario.getId(), usuario.getNome(), usuario.getUsuario(), usuario.getFoto());
+		/*O cadastro e a atualização respondem com o resumo do usuário, sem a senha criptografada.*/
+	}
+
+	private static String assinatura(UsuarioResumo usuario) {
+		return usuario.getId() + "|" + usuario.getNome() + "|" + usuario.getUsuario() + "|" + usuario.getFoto() + "|"
+				+ usuario.getQuantidadePostagens();
+	}
+
 }
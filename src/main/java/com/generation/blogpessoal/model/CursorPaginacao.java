@@ -0,0 +1,64 @@
+package com.generation.blogpessoal.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class CursorPaginacao {
+
+	private static final String SEPARADOR = "|";
+
+	private final LocalDateTime data;
+	private final Long id;
+	/*O cursor guarda a posição (data, id) do último registro entregue ao cliente. A próxima página é buscada a partir
+	 * dessa posição (keyset), então o custo de cada página não depende de quantas páginas já foram percorridas,
+	 * ao contrário do OFFSET, que precisa ler e descartar todas as linhas anteriores.*/
+
+	public CursorPaginacao(LocalDateTime data, Long id) {
+		this.data = data;
+		this.id = id;
+	}
+
+	public static CursorPaginacao de(Postagem postagem) {
+		return new CursorPaginacao(postagem.getData(), postagem.getId());
+	}
+
+	public static CursorPaginacao de(VersaoPostagem versao) {
+		return new CursorPaginacao(versao.getData(), versao.getId());
+	}
+
+	public String codificar() {
+		/*O valor é codificado em Base64 (URL safe) para que o cliente o trate como um valor opaco.*/
+		String valor = this.data + SEPARADOR + this.id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static CursorPaginacao decodificar(String cursor) {
+		try {
+			String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separador = valor.lastIndexOf(SEPARADOR);
+
+			if (separador < 0)
+				throw new IllegalArgumentException(cursor);
+
+			return new CursorPaginacao(LocalDateTime.parse(valor.substring(0, separador)),
+					Long.valueOf(valor.substring(separador + 1)));
+
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido!", e);
+		}
+	}
+
+	public LocalDateTime getData() {
+		return this.data;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.generation.blogpessoal.model;
+
+public class ErroImportacao {
+
+	private final long linha;
+	private final String mensagem;
+	/*linha: posição do registro rejeitado no arquivo importado (o primeiro registro é a linha 1).
+	 *mensagem: motivo da rejeição.*/
+
+	public ErroImportacao(long linha, String mensagem) {
+		this.linha = linha;
+		this.mensagem = mensagem;
+	}
+
+	public long getLinha() {
+		return this.linha;
+	}
+
+	public String getMensagem() {
+		return this.mensagem;
+	}
+
+}
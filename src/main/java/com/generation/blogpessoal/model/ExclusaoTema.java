@@ -0,0 +1,73 @@
+package com.generation.blogpessoal.model;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExclusaoTema {
+
+	public enum Situacao { EM_ANDAMENTO, CONCLUIDA, FALHOU }
+
+	private final Long temaId;
+	private final Long total;
+	private final AtomicLong removidas = new AtomicLong();
+	private final LocalDateTime inicio = LocalDateTime.now();
+	private volatile LocalDateTime fim;
+	private volatile Situacao situacao = Situacao.EM_ANDAMENTO;
+	private volatile String mensagem;
+	/*Andamento da exclusão de um tema e das postagens dele (TemaService). total é a quantidade de postagens do tema no
+	 * início da exclusão (null quando não foi contada) e removidas é atualizado a cada lote apagado. Os campos são lidos
+	 * pela requisição que consulta o andamento enquanto outra thread executa a exclusão.*/
+
+	public ExclusaoTema(Long temaId, Long total) {
+		this.temaId = temaId;
+		this.total = total;
+	}
+
+	public void remover(long quantidade) {
+		this.removidas.addAndGet(quantidade);
+	}
+
+	public void concluir() {
+		this.fim = LocalDateTime.now();
+		this.situacao = Situacao.CONCLUIDA;
+	}
+
+	public void falhar(String mensagem) {
+		this.fim = LocalDateTime.now();
+		this.mensagem = mensagem;
+		this.situacao = Situacao.FALHOU;
+	}
+
+	public boolean emAndamento() {
+		return this.situacao == Situacao.EM_ANDAMENTO;
+	}
+
+	public Long getTemaId() {
+		return this.temaId;
+	}
+
+	public Long getTotal() {
+		return this.total;
+	}
+
+	public long getRemovidas() {
+		return this.removidas.get();
+	}
+
+	public LocalDateTime getInicio() {
+		return this.inicio;
+	}
+
+	public LocalDateTime getFim() {
+		return this.fim;
+	}
+
+	public Situacao getSituacao() {
+		return this.situacao;
+	}
+
+	public String getMensagem() {
+		return this.mensagem;
+	}
+
+}
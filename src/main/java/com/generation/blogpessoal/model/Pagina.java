@@ -0,0 +1,50 @@
+package com.generation.blogpessoal.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public class Pagina<T> {
+
+	public static final int TAMANHO_PADRAO = 20;
+	public static final String TAMANHO_PADRAO_PARAMETRO = "" + TAMANHO_PADRAO;
+	/*TAMANHO_PADRAO_PARAMETRO: o mesmo valor, como String, para o defaultValue do parâmetro tamanho (@RequestParam),
+	 * que só aceita uma String constante.*/
+	public static final int TAMANHO_MAXIMO = 100;
+
+	private final List<T> conteudo;
+	private final String proximo;
+	/*conteudo: os registros da página atual.
+	 *proximo: cursor opaco que o cliente envia de volta para obter a página seguinte. Quando for null, não há mais páginas.*/
+
+	public Pagina(List<T> conteudo, String proximo) {
+		this.conteudo = conteudo;
+		this.proximo = proximo;
+	}
+
+	public static int tamanhoValido(int tamanho) {
+		/*Limita o tamanho solicitado pelo cliente ao intervalo [1, TAMANHO_MAXIMO], para que nenhuma requisição
+		 * consiga carregar a tabela inteira de uma só vez.*/
+		return Math.max(1, Math.min(tamanho, TAMANHO_MAXIMO));
+	}
+
+	public static <T> Pagina<T> de(List<T> linhas, int tamanho, Function<T, String> cursor) {
+		/*As consultas buscam sempre tamanho + 1 linhas: se a linha extra vier, existe uma próxima página e o cursor
+		 * é gerado a partir do último registro da página atual, sem precisar de um COUNT na tabela.*/
+		if (linhas.size() > tamanho) {
+			List<T> conteudo = new ArrayList<>(linhas.subList(0, tamanho));
+			return new Pagina<>(conteudo, cursor.apply(conteudo.get(tamanho - 1)));
+		}
+
+		return new Pagina<>(linhas, null);
+	}
+
+	public List<T> getConteudo() {
+		return this.conteudo;
+	}
+
+	public String getProximo() {
+		return this.proximo;
+	}
+
+}
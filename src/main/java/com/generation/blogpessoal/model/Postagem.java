@@ -2,33 +2,47 @@ package com.generation.blogpessoal.model;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity // indica que esta Classe define uma entidade, ou seja, ela será utilizada para
 		// gerar uma tabela no Banco de dados da aplicação.
-@Table(name = "tb_postagens") /*
+@Table(name = "tb_postagens", indexes = { @Index(name = "idx_postagens_data", columnList = "data, id"),
+		@Index(name = "idx_postagens_tema_data", columnList = "tema_id, data, id"),
+		@Index(name = "idx_postagens_usuario_data", columnList = "usuario_id, data, id") }) /*
 								 * indica o nome da Tabela no Banco de dados. Caso esta anotação não seja
 								 * declarada, o Banco de dados criará a tabela com o mesmo nome da Classe Model
-								 * (Postagem).
+								 * (Postagem). Os índices são criados pelas migrações do Flyway
+								 * (src/main/resources/db/migration) e repetidos aqui para o Banco de dados H2 dos testes.
 								 */
 public class Postagem {
 
 	@Id // inidica que o Atributo anotado será a Chave Primária (Primary Key - PK) da Tabela tb_postagens.
-		@GeneratedValue(strategy = GenerationType.IDENTITY)/* @GeneratedValue indica que a Chave Primária será gerada pelo Banco de dados.
-		// O parâmetro strategy indica de que forma esta Chave Primária será gerada. Estratégia GenerationType.IDENTITY indica que a 
-		 * Chave Primária será gerada pelo Banco de dados através da opção auto-incremento (auto-increment) do SQL, que gera uma sequência 
-		 * numérica iniciando em 1.*/
+		@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_postagens_seq")
+		@SequenceGenerator(name = "tb_postagens_seq", sequenceName = "tb_postagens_seq", allocationSize = 50)
+		/* @GeneratedValue indica que a Chave Primária será gerada pelo Banco de dados.
+		 * O parâmetro strategy indica de que forma esta Chave Primária será gerada. Estratégia GenerationType.SEQUENCE indica que a
+		 * Chave Primária será obtida de uma sequência do Banco de dados (tb_postagens_seq). Com allocationSize = 50, o Hibernate
+		 * reserva 50 ids a cada consulta na sequência e conhece o id antes do INSERT, o que permite agrupar vários INSERTs em um
+		 * único envio ao Banco de dados (JDBC batch). Com a estratégia IDENTITY (auto-incremento) isso não é possível, porque o id
+		 * só é conhecido depois de cada INSERT. No MySQL, que não tem sequências, o Hibernate usa uma tabela com o mesmo nome.*/
 		private Long id;
 	
 		@NotBlank(message = " O atributo título texto é obrigatório!") /*@NotBlank não permite que o Atributo seja Nulo ou contenha apenas espaços em 
@@ -45,14 +59,26 @@ public class Postagem {
 		e inserir no Atributo data toda vez que um Objeto da Classe Postagem for criado ou atualizado.*/
 		private LocalDateTime data;
 	
+		@Version /*controle de concorrência otimista: a cada atualização a versão aumenta em 1 e a linha só é alterada se a versão
+		no Banco de dados ainda for a mesma que o cliente leu (UPDATE ... WHERE versao = ?). As atualizações são feitas pelo
+		PostagemAtualizacaoRepository, com um UPDATE que define as colunas alteradas sem passar pela verificação de alterações
+		do Hibernate (por isso a Classe não usa @DynamicUpdate). Se outra pessoa atualizou a postagem antes,
+		nenhuma linha é alterada e a atualização é recusada com o HTTP Status 409 CONFLICT, em vez de sobrescrever a alteração.*/
+		@ColumnDefault("0")
+		@Column(nullable = false)
+		private Long versao;
+	
 	@ManyToOne /*indica que a Classe Postagem será o lado N:1 e terá um Objeto da Classe Tema, que no modelo Relacional será a Chave Estrangeira
 	 na Tabela tb_postagens (tema_id).*/ 
+	@JoinColumn(name = "tema_id", foreignKey = @ForeignKey(name = "fk_postagens_tema")) /*o nome da Chave Estrangeira é
+	 definido para que o PostagemController identifique qual restrição foi violada quando o tema não existe.*/
 		@JsonIgnoreProperties("postagem") //esta anotação é usada para evitar problemas de serialização e desserialização JSON. 
 		private Tema tema; /* Este é o campo que representa a relação muitos-para-um com a entidade Tema. Cada Postagem terá um objeto 
 		Tema associado a ela.*/
 	
 	@ManyToOne
-	@JsonIgnoreProperties("postagem")
+	@JoinColumn(name = "usuario_id", foreignKey = @ForeignKey(name = "fk_postagens_usuario"))
+	@JsonIgnoreProperties("senha") //o autor da postagem é enviado sem a senha criptografada.
 	private Usuario usuario;
 	
 	public Usuario getUsuario() {
@@ -95,6 +121,14 @@ public class Postagem {
 		this.data = data;
 	}
 
+	public Long getVersao() {
+		return versao;
+	}
+
+	public void setVersao(Long versao) {
+		this.versao = versao;
+	}
+
 	public Tema getTema() {
 		return tema;
 	}
@@ -0,0 +1,60 @@
+package com.generation.blogpessoal.model;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+public class PostagemAtualizacao {
+
+	private static final String PREENCHIDO = "(?s).*\\S.*";
+
+	@Size(min = 5, max = 100, message = "O atributo título deve conter no mínimo 5 e no máximo 100 caracteres")
+	@Pattern(regexp = PREENCHIDO, message = "O atributo título não pode conter apenas espaços!")
+	private String titulo;
+
+	@Size(min = 10, max = 1000, message = "O atributo texto deve conter no mínimo 10 e no máximo 1000 caracteres")
+	@Pattern(regexp = PREENCHIDO, message = "O atributo texto não pode conter apenas espaços!")
+	private String texto;
+	/*null significa que o atributo não foi enviado e não será alterado; um valor enviado segue as mesmas regras do
+	 * @NotBlank da Postagem. O @Pattern aceita null e recusa um texto sem nenhum caractere visível.*/
+
+	private Tema tema;
+
+	@NotNull(message = "O atributo versão é obrigatório!")
+	private Long versao;
+	/*Corpo do PATCH /postagens/{id}: apenas os atributos enviados (diferentes de null) são alterados. A versão é a que o
+	 * cliente leu da postagem; se ela não for mais a atual, a alteração é recusada.*/
+
+	public String getTitulo() {
+		return this.titulo;
+	}
+
+	public void setTitulo(String titulo) {
+		this.titulo = titulo;
+	}
+
+	public String getTexto() {
+		return this.texto;
+	}
+
+	public void setTexto(String texto) {
+		this.texto = texto;
+	}
+
+	public Tema getTema() {
+		return this.tema;
+	}
+
+	public void setTema(Tema tema) {
+		this.tema = tema;
+	}
+
+	public Long getVersao() {
+		return this.versao;
+	}
+
+	public void setVersao(Long versao) {
+		this.versao = versao;
+	}
+
+}
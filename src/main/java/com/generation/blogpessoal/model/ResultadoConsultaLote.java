@@ -0,0 +1,25 @@
+package com.generation.blogpessoal.model;
+
+import java.util.List;
+
+public class ResultadoConsultaLote {
+
+	private final List<Postagem> postagens;
+	private final List<Long> naoEncontradas;
+	/*Resposta da consulta de várias postagens pelo id (/postagens/lote): as postagens encontradas, na mesma ordem dos
+	 * ids solicitados, e os ids que não correspondem a nenhuma postagem.*/
+
+	public ResultadoConsultaLote(List<Postagem> postagens, List<Long> naoEncontradas) {
+		this.postagens = postagens;
+		this.naoEncontradas = naoEncontradas;
+	}
+
+	public List<Postagem> getPostagens() {
+		return this.postagens;
+	}
+
+	public List<Long> getNaoEncontradas() {
+		return this.naoEncontradas;
+	}
+
+}
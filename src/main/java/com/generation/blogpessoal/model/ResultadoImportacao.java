@@ -0,0 +1,40 @@
+package com.generation.blogpessoal.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResultadoImportacao {
+
+	public static final int ERROS_MAXIMOS = 1000;
+
+	private long importadas;
+	private long rejeitadas;
+	private final List<ErroImportacao> erros = new ArrayList<>();
+	/*Relatório de uma importação em lote: quantos registros foram gravados, quantos foram rejeitados e o motivo de cada
+	 * rejeição. Apenas as primeiras ERROS_MAXIMOS rejeições são detalhadas, para que a resposta não cresça junto com um
+	 * arquivo inteiro de registros inválidos.*/
+
+	public void importar(long quantidade) {
+		this.importadas += quantidade;
+	}
+
+	public void rejeitar(long linha, String mensagem) {
+		this.rejeitadas++;
+
+		if (this.erros.size() < ERROS_MAXIMOS)
+			this.erros.add(new ErroImportacao(linha, mensagem));
+	}
+
+	public long getImportadas() {
+		return this.importadas;
+	}
+
+	public long getRejeitadas() {
+		return this.rejeitadas;
+	}
+
+	public List<ErroImportacao> getErros() {
+		return this.erros;
+	}
+
+}
@@ -2,8 +2,12 @@ package com.generation.blogpessoal.model;
 
 import java.util.List;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -16,6 +20,11 @@ import jakarta.validation.constraints.NotNull;
 
 @Entity
 @Table(name = "tb_temas")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tema")
+/*@Cacheable: Os temas mudam raramente e são lidos em todo cadastro e atualização de postagem, então ficam no cache de
+ * segundo nível do Hibernate (região tema, configurada no arquivo application.conf).
+ * READ_WRITE: quando um tema é alterado ou apagado, a entrada do cache é atualizada junto com a transação.*/
 public class Tema {
 	
 	@Id
@@ -25,20 +34,21 @@ public class Tema {
 	@NotNull(message = "O Atributo Descrição é obrigatório")
 	private String descricao;
 	
-	@OneToMany(fetch = FetchType.EAGER, mappedBy = "tema", cascade = CascadeType.REMOVE)
+	@OneToMany(fetch = FetchType.LAZY, mappedBy = "tema", cascade = CascadeType.REMOVE)
 	/*fetch: A propriedade fetch define a estratégia de busca e carregamento dos dados das entidades relacionadas durante uma busca. 
 	 * Ao trabalhar com um ORM como o Hibernate, a busca e carregamento de dados pode ser classificada em dois tipos: Eager (ansiosa) 
 	 * e Lazy (preguiçosa). FetchType.LAZY: No projeto Blog Pessoal utilizaremos o tipo LAZY (preguiçosa), ou seja, ao carregarmos os 
 	 * dados de uma Postagem, ele não carregará os dados do Tema associado a cada Postagem até que os dados sejam solicitados.*/
-	@JsonIgnoreProperties("tema")
+	@JsonIgnore
 	private List<Postagem> postagem;
 	/*mappedBy = "tema": Esta propriedade indica que a relação é bidirecional e que o lado inverso da relação é gerenciado pela
 	 *  propriedade tema na entidade Postagem. Isso significa que a chave estrangeira que mapeia a relação está na tabela tb_postagens.
 	*cascade = CascadeType.REMOVE: A propriedade cascade define as operações em cascata que devem ser aplicadas às entidades relacionadas. 
 	*CascadeType.REMOVE significa que, quando um Tema for removido, todas as Postagem associadas a ele também serão removidas automaticamente.
-	*@JsonIgnoreProperties("tema"): Esta anotação é usada para evitar problemas de serialização e desserialização JSON. Ela diz ao Jackson
-	* para ignorar a propriedade tema ao serializar um objeto Postagem, evitando loops infinitos.private List postagem: Este é o campo que 
-	* representa a lista de postagens associadas a um tema. Cada Tema pode ter várias Postagem associadas a ele.*/
+	*@JsonIgnore: Esta anotação diz ao Jackson para não serializar a lista de postagens junto com o Tema. Como a lista é LAZY, serializá-la
+	* carregaria todas as postagens do tema (e os usuários de cada uma) a cada resposta. As postagens de um tema são consultadas de forma
+	* paginada no endpoint /temas/{id}/postagens. private List postagem: Este é o campo que representa a lista de postagens associadas a um
+	* tema. Cada Tema pode ter várias Postagem associadas a ele.*/
 	
 	public Long getId() {
 		return this.id;
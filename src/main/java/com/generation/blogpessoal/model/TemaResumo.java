@@ -0,0 +1,29 @@
+package com.generation.blogpessoal.model;
+
+public class TemaResumo {
+
+	private final Long id;
+	private final String descricao;
+	private final Long quantidadePostagens;
+	/*Projeção usada nas listagens de temas: apenas o id, a descrição e a quantidade de postagens do tema, calculada
+	 * pelo Banco de dados (COUNT agrupado), sem carregar as postagens em memória.*/
+
+	public TemaResumo(Long id, String descricao, Long quantidadePostagens) {
+		this.id = id;
+		this.descricao = descricao;
+		this.quantidadePostagens = quantidadePostagens;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public String getDescricao() {
+		return this.descricao;
+	}
+
+	public Long getQuantidadePostagens() {
+		return this.quantidadePostagens;
+	}
+
+}
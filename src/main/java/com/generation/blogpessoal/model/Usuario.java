@@ -2,7 +2,7 @@ package com.generation.blogpessoal.model;
 
 import java.util.List;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.CascadeType;
@@ -12,13 +12,19 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "tb_usuarios")
+@Table(name = "tb_usuarios", uniqueConstraints = @UniqueConstraint(name = "uk_usuarios_usuario", columnNames = "usuario"))
+/*A restrição e os índices são criados pelas migrações do Flyway (src/main/resources/db/migration). As anotações apenas
+ * repetem o esquema, usado pelo Banco de dados H2 dos testes.*/
+/*Os usuários não ficam no cache de segundo nível do Hibernate: as leituras frequentes são pelo e-mail (findByUsuario,
+ * na autenticação), que o cache de entidades não atende, e já passam pelo cache do UserDetailsServiceImpl. As postagens
+ * trazem o usuário no mesmo SELECT (JOIN).*/
 public class Usuario {
 
 	@Id
@@ -43,7 +49,9 @@ public class Usuario {
 	private String foto;
 
 	@OneToMany(mappedBy = "usuario", cascade = CascadeType.REMOVE)
-	@JsonIgnoreProperties("usuario")
+	@JsonIgnore
+	/*As postagens não fazem parte do JSON do usuário: com spring.jpa.open-in-view=false a lista (LAZY) não pode ser
+	 * carregada durante a serialização. As postagens de um usuário são consultadas em GET /usuarios/{id}/postagens.*/
 	private List<Postagem> postagem;
 
 	/* Métodos Construtores */
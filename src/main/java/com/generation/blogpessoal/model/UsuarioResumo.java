@@ -0,0 +1,49 @@
+package com.generation.blogpessoal.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public class UsuarioResumo {
+
+	private final Long id;
+	private final String nome;
+	private final String usuario;
+	private final String foto;
+	private final Long quantidadePostagens;
+	/*Projeção usada nas consultas de usuários: apenas os dados públicos do usuário, sem a senha e sem a lista de
+	 * postagens. A quantidade de postagens é calculada pelo Banco de dados (COUNT agrupado) somente quando for solicitada;
+	 * caso contrário, fica null e não aparece no JSON.*/
+
+	public UsuarioResumo(Long id, String nome, String usuario, String foto) {
+		this(id, nome, usuario, foto, null);
+	}
+
+	public UsuarioResumo(Long id, String nome, String usuario, String foto, Long quantidadePostagens) {
+		this.id = id;
+		this.nome = nome;
+		this.usuario = usuario;
+		this.foto = foto;
+		this.quantidadePostagens = quantidadePostagens;
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public String getNome() {
+		return this.nome;
+	}
+
+	public String getUsuario() {
+		return this.usuario;
+	}
+
+	public String getFoto() {
+		return this.foto;
+	}
+
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	public Long getQuantidadePostagens() {
+		return this.quantidadePostagens;
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.generation.blogpessoal.model;
+
+import java.time.LocalDateTime;
+
+public class VersaoPostagem {
+
+	private static final String SEPARADOR = "|";
+
+	private final Long id;
+	private final LocalDateTime data;
+	private final Long temaId;
+	private final String temaDescricao;
+	private final Long usuarioId;
+	private final String usuarioNome;
+	private final String usuarioUsuario;
+	private final String usuarioFoto;
+	/*Os campos de uma postagem (e do tema e do usuário que aparecem junto com ela na resposta) que identificam a versão
+	 * entregue ao cliente. São usados para calcular o ETag das respostas, sem precisar gerar o JSON da postagem. O
+	 * título e o texto não entram porque qualquer alteração neles também altera a data (@UpdateTimestamp).*/
+
+	public VersaoPostagem(Long id, LocalDateTime data, Long temaId, String temaDescricao, Long usuarioId,
+			String usuarioNome, String usuarioUsuario, String usuarioFoto) {
+		this.id = id;
+		this.data = data;
+		this.temaId = temaId;
+		this.temaDescricao = temaDescricao;
+		this.usuarioId = usuarioId;
+		this.usuarioNome = usuarioNome;
+		this.usuarioUsuario = usuarioUsuario;
+		this.usuarioFoto = usuarioFoto;
+	}
+
+	public static VersaoPostagem de(Postagem postagem) {
+		Tema tema = postagem.getTema();
+		Usuario usuario = postagem.getUsuario();
+
+		return new VersaoPostagem(postagem.getId(), postagem.getData(),
+				tema == null ? null : tema.getId(), tema == null ? null : tema.getDescricao(),
+				usuario == null ? null : usuario.getId(), usuario == null ? null : usuario.getNome(),
+				usuario == null ? null : usuario.getUsuario(), usuario == null ? null : usuario.getFoto());
+	}
+
+	public String assinatura() {
+		return String.join(SEPARADOR, String.valueOf(id), String.valueOf(data), String.valueOf(temaId),
+				String.valueOf(temaDescricao), String.valueOf(usuarioId), String.valueOf(usuarioNome),
+				String.valueOf(usuarioUsuario), String.valueOf(usuarioFoto));
+	}
+
+	public Long getId() {
+		return this.id;
+	}
+
+	public LocalDateTime getData() {
+		return this.data;
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.generation.blogpessoal.model;
+
+import java.time.LocalDateTime;
+
+public class VersaoTema {
+
+	private static final String SEPARADOR = "|";
+
+	private final Long id;
+	private final String descricao;
+	private final Long totalPostagens;
+	private final LocalDateTime ultimaPostagem;
+	/*Os valores que identificam a versão de uma listagem de temas, usados no ETag: o id e a descrição de cada tema e,
+	 * de toda a tabela tb_postagens, a quantidade de postagens e a data da última postagem cadastrada ou alterada.
+	 * A quantidade de postagens de cada tema (TemaResumo) só muda quando uma postagem é cadastrada, apagada ou trocada
+	 * de tema, e qualquer uma dessas alterações muda um dos dois totais. Assim, o ETag é calculado sem o LEFT JOIN e o
+	 * GROUP BY das consultas de resumo.*/
+
+	public VersaoTema(Long id, String descricao, Long totalPostagens, LocalDateTime ultimaPostagem) {
+		this.id = id;
+		this.descricao = descricao;
+		this.totalPostagens = totalPostagens;
+		this.ultimaPostagem = ultimaPostagem;
+	}
+
+	public String assinatura() {
+		return String.join(SEPARADOR, String.valueOf(id), String.valueOf(descricao), String.valueOf(totalPostagens),
+				String.valueOf(ultimaPostagem));
+	}
+
+}
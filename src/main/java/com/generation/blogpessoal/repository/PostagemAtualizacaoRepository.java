@@ -0,0 +1,17 @@
+package com.generation.blogpessoal.repository;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemAtualizacao;
+
+public interface PostagemAtualizacaoRepository {
+
+	public int atualizarParcialmente(Long id, PostagemAtualizacao atualizacao);
+	/*Altera apenas os atributos enviados na atualização, com um único UPDATE e sem ler a postagem antes. Retorna a
+	 * quantidade de linhas alteradas: 0 quando a postagem não existe ou quando a versão informada não é mais a atual.*/
+
+	public int atualizar(Postagem postagem);
+	/*Substitui o título, o texto, o tema e o usuário da postagem (PUT) com um único UPDATE que confere a versão, sem ler
+	 * a postagem antes. Quando a linha é alterada, a data e a versão novas são copiadas para o Objeto postagem. Retorna
+	 * a quantidade de linhas alteradas, como o atualizarParcialmente.*/
+
+}
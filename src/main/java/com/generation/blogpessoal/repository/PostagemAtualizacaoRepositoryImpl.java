@@ -0,0 +1,89 @@
+package com.generation.blogpessoal.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.PostagemAtualizacao;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+
+/*Implementação do PostagemAtualizacaoRepository. O Spring Data encontra esta Classe pelo nome (nome da interface + Impl)
+ * e a combina com o PostagemRepository, que estende a interface.*/
+public class PostagemAtualizacaoRepositoryImpl implements PostagemAtualizacaoRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int atualizarParcialmente(Long id, PostagemAtualizacao atualizacao) {
+
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Postagem> update = builder.createCriteriaUpdate(Postagem.class);
+		Root<Postagem> postagem = update.from(Postagem.class);
+
+		if (atualizacao.getTitulo() != null)
+			update.set(postagem.<String>get("titulo"), atualizacao.getTitulo());
+
+		if (atualizacao.getTexto() != null)
+			update.set(postagem.<String>get("texto"), atualizacao.getTexto());
+
+		if (atualizacao.getTema() != null)
+			update.set(postagem.<Tema>get("tema"), entityManager.getReference(Tema.class, atualizacao.getTema().getId()));
+
+		update.set(postagem.<LocalDateTime>get("data"), LocalDateTime.now());
+		update.set(postagem.<Long>get("versao"), builder.sum(postagem.<Long>get("versao"), 1L));
+		/*O UPDATE em massa não passa pelo @UpdateTimestamp nem pelo @Version, então a data e a versão são atualizadas aqui.*/
+
+		update.where(builder.equal(postagem.get("id"), id),
+				builder.equal(postagem.get("versao"), atualizacao.getVersao()));
+
+		return entityManager.createQuery(update).executeUpdate();
+
+	}
+
+	@Override
+	@Transactional
+	public int atualizar(Postagem postagem) {
+
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Postagem> update = builder.createCriteriaUpdate(Postagem.class);
+		Root<Postagem> raiz = update.from(Postagem.class);
+		LocalDateTime agora = LocalDateTime.now();
+
+		update.set(raiz.<String>get("titulo"), postagem.getTitulo());
+		update.set(raiz.<String>get("texto"), postagem.getTexto());
+		update.set(raiz.<Tema>get("tema"), entityManager.getReference(Tema.class, postagem.getTema().getId()));
+
+		if (postagem.getUsuario() == null || postagem.getUsuario().getId() == null)
+			update.set(raiz.<Usuario>get("usuario"), builder.nullLiteral(Usuario.class));
+		else
+			update.set(raiz.<Usuario>get("usuario"), entityManager.getReference(Usuario.class, postagem.getUsuario().getId()));
+		/*getReference não consulta o Banco de dados: se o tema ou o usuário não existirem, a Chave Estrangeira recusa o
+		 * UPDATE.*/
+		update.set(raiz.<LocalDateTime>get("data"), agora);
+		update.set(raiz.<Long>get("versao"), builder.sum(raiz.<Long>get("versao"), 1L));
+
+		update.where(builder.equal(raiz.get("id"), postagem.getId()),
+				builder.equal(raiz.get("versao"), postagem.getVersao()));
+
+		int alteradas = entityManager.createQuery(update).executeUpdate();
+
+		if (alteradas > 0) {
+			postagem.setData(agora);
+			postagem.setVersao(postagem.getVersao() + 1);
+		}
+
+		return alteradas;
+
+	}
+
+}
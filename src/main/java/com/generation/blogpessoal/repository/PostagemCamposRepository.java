@@ -0,0 +1,24 @@
+package com.generation.blogpessoal.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.generation.blogpessoal.model.CursorPaginacao;
+import com.generation.blogpessoal.model.Pagina;
+
+public interface PostagemCamposRepository {
+
+	public static final List<String> CAMPOS = List.of("id", "titulo", "texto", "data", "versao", "tema", "usuario");
+	/*Campos que podem ser solicitados no parâmetro fields das listagens de postagens, na ordem em que aparecem no JSON.
+	 * tema e usuario trazem o Objeto relacionado (id e descrição do tema; id, nome, usuário e foto do usuário).*/
+
+	public Pagina<Map<String, Object>> findPaginaCampos(Set<String> campos, Long temaId, CursorPaginacao apos, int limite);
+	/*Página de postagens ordenada por (data, id), como o findPrimeiraPagina e o findPaginaApos, mas o SELECT contém apenas
+	 * as colunas dos campos solicitados (e o id e a data, usados no cursor). Os JOINs com tb_temas e tb_usuarios só são
+	 * feitos quando tema ou usuario forem solicitados. temaId e apos são opcionais.*/
+
+	public Optional<Map<String, Object>> findCamposById(Set<String> campos, Long id);
+
+}
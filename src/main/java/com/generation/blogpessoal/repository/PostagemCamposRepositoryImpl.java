@@ -0,0 +1,157 @@
+package com.generation.blogpessoal.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.generation.blogpessoal.model.CursorPaginacao;
+import com.generation.blogpessoal.model.Pagina;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/*Implementação do PostagemCamposRepository. As consultas são montadas com a Criteria API, selecionando apenas as colunas
+ * dos campos solicitados, e cada linha (Tuple) é convertida em um Map com os mesmos nomes de atributos do JSON da
+ * Postagem.*/
+public class PostagemCamposRepositoryImpl implements PostagemCamposRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional(readOnly = true)
+	public Pagina<Map<String, Object>> findPaginaCampos(Set<String> campos, Long temaId, CursorPaginacao apos, int limite) {
+
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> consulta = builder.createTupleQuery();
+		Root<Postagem> postagem = consulta.from(Postagem.class);
+		Path<LocalDateTime> data = postagem.get("data");
+		Path<Long> id = postagem.get("id");
+
+		List<Predicate> condicoes = new ArrayList<>();
+
+		if (temaId != null)
+			condicoes.add(builder.equal(postagem.get("tema").get("id"), temaId));
+		/*tema.id é a própria coluna tema_id de tb_postagens, então o filtro não exige um JOIN com tb_temas.*/
+
+		if (apos != null)
+			condicoes.add(builder.or(builder.greaterThan(data, apos.getData()),
+					builder.and(builder.equal(data, apos.getData()), builder.greaterThan(id, apos.getId()))));
+
+		consulta.multiselect(selecao(postagem, campos))
+				.where(condicoes.toArray(Predicate[]::new))
+				.orderBy(builder.asc(data), builder.asc(id));
+
+		List<Tuple> linhas = entityManager.createQuery(consulta).setMaxResults(limite + 1).getResultList();
+
+		String proximo = null;
+
+		if (linhas.size() > limite) {
+			Tuple ultima = linhas.get(limite - 1);
+			proximo = new CursorPaginacao(ultima.get("data", LocalDateTime.class), ultima.get("id", Long.class)).codificar();
+			linhas = linhas.subList(0, limite);
+		}
+		/*Mesma regra do Pagina.de: uma linha a mais indica que existe uma próxima página. O cursor é gerado antes de os
+		 * campos não solicitados (id e data) serem descartados.*/
+
+		return new Pagina<>(linhas.stream().map(linha -> campos(linha, campos)).toList(), proximo);
+
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Map<String, Object>> findCamposById(Set<String> campos, Long id) {
+
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> consulta = builder.createTupleQuery();
+		Root<Postagem> postagem = consulta.from(Postagem.class);
+
+		consulta.multiselect(selecao(postagem, campos)).where(builder.equal(postagem.get("id"), id));
+
+		return entityManager.createQuery(consulta).getResultStream().findFirst().map(linha -> campos(linha, campos));
+
+	}
+
+	private static List<Selection<?>> selecao(Root<Postagem> postagem, Set<String> campos) {
+
+		List<Selection<?>> colunas = new ArrayList<>();
+		colunas.add(postagem.get("id").alias("id"));
+		colunas.add(postagem.get("data").alias("data"));
+
+		for (String campo : List.of("titulo", "texto", "versao"))
+			if (campos.contains(campo))
+				colunas.add(postagem.get(campo).alias(campo));
+
+		if (campos.contains("tema")) {
+			Join<Postagem, Tema> tema = postagem.join("tema", JoinType.LEFT);
+			colunas.add(tema.get("id").alias("tema_id"));
+			colunas.add(tema.get("descricao").alias("tema_descricao"));
+		}
+
+		if (campos.contains("usuario")) {
+			Join<Postagem, Usuario> usuario = postagem.join("usuario", JoinType.LEFT);
+			colunas.add(usuario.get("id").alias("usuario_id"));
+			colunas.add(usuario.get("nome").alias("usuario_nome"));
+			colunas.add(usuario.get("usuario").alias("usuario_usuario"));
+			colunas.add(usuario.get("foto").alias("usuario_foto"));
+		}
+
+		return colunas;
+
+	}
+
+	private static Map<String, Object> campos(Tuple linha, Set<String> campos) {
+
+		Map<String, Object> resultado = new LinkedHashMap<>();
+
+		for (String campo : CAMPOS) {
+
+			if (!campos.contains(campo))
+				continue;
+
+			switch (campo) {
+				case "tema" -> resultado.put(campo, relacionado(linha, "tema", "id", "descricao"));
+				case "usuario" -> resultado.put(campo, relacionado(linha, "usuario", "id", "nome", "usuario", "foto"));
+				default -> resultado.put(campo, linha.get(campo));
+			}
+
+		}
+
+		return resultado;
+
+	}
+
+	private static Map<String, Object> relacionado(Tuple linha, String prefixo, String... atributos) {
+
+		if (linha.get(prefixo + "_id") == null)
+			return null;
+		/*Postagem sem tema ou sem usuário (LEFT JOIN sem correspondência): o atributo fica null, como no JSON da Postagem.*/
+
+		Map<String, Object> objeto = new LinkedHashMap<>();
+
+		for (String atributo : atributos)
+			objeto.put(atributo, linha.get(prefixo + "_" + atributo));
+
+		return objeto;
+
+	}
+
+}
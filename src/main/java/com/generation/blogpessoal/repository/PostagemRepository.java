@@ -1,13 +1,27 @@
 package com.generation.blogpessoal.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.VersaoPostagem;
 
-public interface PostagemRepository extends JpaRepository<Postagem, Long>{
+import jakarta.persistence.QueryHint;
+
+public interface PostagemRepository extends JpaRepository<Postagem, Long>, PostagemAtualizacaoRepository,
+		PostagemCamposRepository {
 	/*    A Classe Postagem, que é a Entidade que será mapeada em nosso Banco de dados (Lembre-se que a Classe Postagem foi quem gerou 
     a nossa tabela tb_postagens).    O Long representa a nossa Chave Primária (Primary Key), que é o Atributo que recebeu a 
     anotação @Id na nossa Classe Postagem (o Atributo também se chama id em nossa Classe Postagem).
@@ -21,8 +35,114 @@ public interface PostagemRepository extends JpaRepository<Postagem, Long>{
 		    Tipo da Chave Primária:
 		        O segundo parâmetro genérico é o tipo da chave primária da entidade. No seu caso, é Long.
 		        Este tipo deve corresponder ao tipo do atributo que está anotado com @Id na classe da entidade. */
+	public static final String VERSOES = "SELECT new com.generation.blogpessoal.model.VersaoPostagem(p.id, p.data, t.id, "
+			+ "t.descricao, u.id, u.nome, u.usuario, u.foto) FROM Postagem p LEFT JOIN p.tema t LEFT JOIN p.usuario u ";
+	/*Início das consultas que buscam apenas os campos usados no ETag e no Last-Modified das postagens (VersaoPostagem),
+	 * sem carregar as postagens.*/
+
+	@EntityGraph(attributePaths = { "tema", "usuario" })
 	public List <Postagem> findAllByTituloContainingIgnoreCase(@Param("titulo") String titulo);
 	/*este método busca todas as postagens (Postagem) cujo título (titulo) contém a string fornecida, ignorando a diferença entre maiúsculas
 	 *  e minúsculas. O Spring Data JPA gera automaticamente a implementação deste método com base na convenção de nomenclatura.*/
+	/*@EntityGraph: as consultas que devolvem listas de postagens carregam o Tema e o Usuario de cada postagem na mesma consulta
+	 * (JOIN). Sem ele, o Hibernate faria um SELECT extra para cada tema e cada usuário diferente da lista (problema N+1).*/
+
+	@EntityGraph(attributePaths = { "tema", "usuario" })
+	public List<Postagem> findAllByIdIn(Collection<Long> ids);
+
+	@EntityGraph(attributePaths = { "tema", "usuario" })
+	@Query("SELECT p FROM Postagem p ORDER BY p.data ASC, p.id ASC")
+	public List<Postagem> findPrimeiraPagina(Pageable pageable);
+
+	@EntityGraph(attributePaths = { "tema", "usuario" })
+	@Query("SELECT p FROM Postagem p WHERE p.data > :data OR (p.data = :data AND p.id > :id) ORDER BY p.data ASC, p.id ASC")
+	public List<Postagem> findPaginaApos(@Param("data") LocalDateTime data, @Param("id") Long id, Pageable pageable);
+	/*Paginação por cursor (keyset): a primeira página é lida do início da ordenação (data, id) e as seguintes a partir
+	 * da posição do último registro entregue. O Pageable é usado apenas para limitar a quantidade de linhas (LIMIT),
+	 * sempre na página 0, então o banco nunca precisa percorrer as linhas das páginas anteriores.*/
+
+	@EntityGraph(attributePaths = { "tema", "usuario" })
+	@Query("SELECT p FROM Postagem p WHERE p.tema.id = :temaId ORDER BY p.data ASC, p.id ASC")
+	public List<Postagem> findPrimeiraPaginaPorTema(@Param("temaId") Long temaId, Pageable pageable);
+
+	@EntityGraph(attributePaths = { "tema", "usuario" })
+	@Query("SELECT p FROM Postagem p WHERE p.tema.id = :temaId AND (p.data > :data OR (p.data = :data AND p.id > :id)) "
+			+ "ORDER BY p.data ASC, p.id ASC")
+	public List<Postagem> findPaginaPorTemaApos(@Param("temaId") Long temaId, @Param("data") LocalDateTime data,
+			@Param("id") Long id, Pageable pageable);
+	//As mesmas consultas por cursor, restritas às postagens de um tema (usadas em /temas/{id}/postagens).
+
+	@EntityGraph(attributePaths = { "tema", "usuario" })
+	@Query("SELECT p FROM Postagem p WHERE p.usuario.id = :usuarioId ORDER BY p.data DESC, p.id DESC")
+	public List<Postagem> findPrimeiraPaginaPorUsuario(@Param("usuarioId") Long usuarioId, Pageable pageable);
+
+	@EntityGraph(attributePaths = { "tema", "usuario" })
+	@Query("SELECT p FROM Postagem p WHERE p.usuario.id = :usuarioId AND (p.data < :data OR (p.data = :data AND p.id < :id)) "
+			+ "ORDER BY p.data DESC, p.id DESC")
+	public List<Postagem> findPaginaPorUsuarioApos(@Param("usuarioId") Long usuarioId, @Param("data") LocalDateTime data,
+			@Param("id") Long id, Pageable pageable);
+	/*Postagens de um usuário, das mais recentes para as mais antigas (usadas em /usuarios/{id}/postagens e
+	 * /usuarios/meu-feed). O índice idx_postagens_usuario_data (usuario_id, data, id) é percorrido de trás para frente,
+	 * então cada página lê apenas as suas linhas, não importa quantas postagens o usuário tenha.*/
+
+	@Query(VERSOES + "WHERE p.id = :id")
+	public Optional<VersaoPostagem> findVersaoById(@Param("id") Long id);
+	/*Busca apenas os campos usados no ETag e no Last-Modified de uma postagem, para responder às requisições condicionais
+	 * (304 Not Modified) sem carregar a postagem inteira.*/
+
+	@Query(VERSOES + "ORDER BY p.data ASC, p.id ASC")
+	public List<VersaoPostagem> findVersoesPrimeiraPagina(Pageable pageable);
+
+	@Query(VERSOES + "WHERE p.data > :data OR (p.data = :data AND p.id > :id) ORDER BY p.data ASC, p.id ASC")
+	public List<VersaoPostagem> findVersoesPaginaApos(@Param("data") LocalDateTime data, @Param("id") Long id,
+			Pageable pageable);
+
+	@Query(VERSOES + "WHERE p.tema.id = :temaId ORDER BY p.data ASC, p.id ASC")
+	public List<VersaoPostagem> findVersoesPrimeiraPaginaPorTema(@Param("temaId") Long temaId, Pageable pageable);
+
+	@Query(VERSOES + "WHERE p.tema.id = :temaId AND (p.data > :data OR (p.data = :data AND p.id > :id)) "
+			+ "ORDER BY p.data ASC, p.id ASC")
+	public List<VersaoPostagem> findVersoesPaginaPorTemaApos(@Param("temaId") Long temaId,
+			@Param("data") LocalDateTime data, @Param("id") Long id, Pageable pageable);
+
+	@Query(VERSOES + "WHERE p.usuario.id = :usuarioId ORDER BY p.data DESC, p.id DESC")
+	public List<VersaoPostagem> findVersoesPrimeiraPaginaPorUsuario(@Param("usuarioId") Long usuarioId,
+			Pageable pageable);
+
+	@Query(VERSOES + "WHERE p.usuario.id = :usuarioId AND (p.data < :data OR (p.data = :data AND p.id < :id)) "
+			+ "ORDER BY p.data DESC, p.id DESC")
+	public List<VersaoPostagem> findVersoesPaginaPorUsuarioApos(@Param("usuarioId") Long usuarioId,
+			@Param("data") LocalDateTime data, @Param("id") Long id, Pageable pageable);
+	/*As mesmas janelas das consultas por cursor acima, com apenas as versões das postagens. Quando o cliente envia um
+	 * ETag (If-None-Match), a página é conferida com estas consultas: se ela não mudou, a resposta 304 Not Modified é
+	 * enviada sem carregar as postagens (título, texto, tema e usuário completos) no Hibernate.*/
+
+	public long countByTemaId(Long temaId);
+
+	@Query("SELECT p.id FROM Postagem p WHERE p.tema.id = :temaId")
+	public List<Long> findIdsPorTema(@Param("temaId") Long temaId, Pageable pageable);
+
+	@Modifying
+	@Query("DELETE FROM Postagem p WHERE p.id IN :ids")
+	public int excluirTodas(@Param("ids") Collection<Long> ids);
+
+	@Modifying
+	@Query("DELETE FROM Postagem p WHERE p.tema.id = :temaId")
+	public int excluirPorTema(@Param("temaId") Long temaId);
+	/*Usadas na exclusão de um tema (TemaService): os ids das postagens do tema são lidos em lotes (sem carregar as
+	 * postagens) e cada lote é apagado com um único DELETE ... WHERE id IN, em vez de um DELETE por postagem. As
+	 * consultas usam o índice idx_postagens_tema_data. O DELETE em massa precisa de uma transação e não passa pelo
+	 * PostagemController, então o chamador também atualiza o cache de postagens e o índice de busca.*/
+
+	@EntityGraph(attributePaths = { "tema", "usuario" })
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE") })
+	@Query("SELECT p FROM Postagem p ORDER BY p.id ASC")
+	public Stream<Postagem> streamAll();
+	/*Lê todas as postagens através de um cursor do Banco de dados (usado em /postagens/export). As linhas chegam do
+	 * Banco de dados em grupos de 1000 (fetch size) à medida que o Stream é percorrido, em vez de uma List com a tabela
+	 * inteira. READ_ONLY e CACHE_MODE IGNORE evitam guardar uma cópia de cada linha no Hibernate e no cache de segundo
+	 * nível. O Stream precisa ser percorrido dentro de uma transação e fechado no final.*/
 		
 }
@@ -0,0 +1,19 @@
+package com.generation.blogpessoal.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface TemaCamposRepository {
+
+	public static final List<String> CAMPOS = List.of("id", "descricao", "quantidadePostagens");
+	/*Campos que podem ser solicitados no parâmetro fields das consultas de temas (os atributos do TemaResumo).*/
+
+	public List<Map<String, Object>> findCampos(Set<String> campos, String descricao);
+	/*Lista os temas (filtrados pela descrição, quando informada) com apenas os campos solicitados. O LEFT JOIN com
+	 * tb_postagens e o GROUP BY só entram na consulta quando quantidadePostagens for solicitado.*/
+
+	public Optional<Map<String, Object>> findCamposById(Set<String> campos, Long id);
+
+}
@@ -0,0 +1,104 @@
+package com.generation.blogpessoal.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/*Implementação do TemaCamposRepository, com a Criteria API, no mesmo formato do PostagemCamposRepositoryImpl.*/
+public class TemaCamposRepositoryImpl implements TemaCamposRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Map<String, Object>> findCampos(Set<String> campos, String descricao) {
+
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> consulta = builder.createTupleQuery();
+		Root<Tema> tema = consulta.from(Tema.class);
+
+		List<Predicate> condicoes = new ArrayList<>();
+
+		if (descricao != null)
+			condicoes.add(builder.like(builder.lower(tema.get("descricao")),
+					"%" + EscapeCharacter.DEFAULT.escape(descricao).toLowerCase() + "%",
+					EscapeCharacter.DEFAULT.getEscapeCharacter()));
+		/*Como no findAllResumosByDescricao, o %, o _ e a \ da descrição são escapados e não funcionam como curingas do LIKE.*/
+
+		montar(consulta, tema, campos, condicoes);
+		consulta.orderBy(builder.asc(tema.get("id")));
+
+		return entityManager.createQuery(consulta)
+				.setHint(HibernateHints.HINT_CACHEABLE, true)
+				.getResultList().stream().map(linha -> campos(linha, campos)).toList();
+		/*Como o findAllResumos, as listagens usam o cache de consultas do Hibernate.*/
+
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Map<String, Object>> findCamposById(Set<String> campos, Long id) {
+
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> consulta = builder.createTupleQuery();
+		Root<Tema> tema = consulta.from(Tema.class);
+
+		montar(consulta, tema, campos, List.of(builder.equal(tema.get("id"), id)));
+
+		return entityManager.createQuery(consulta).getResultStream().findFirst().map(linha -> campos(linha, campos));
+
+	}
+
+	private void montar(CriteriaQuery<Tuple> consulta, Root<Tema> tema, Set<String> campos, List<Predicate> condicoes) {
+
+		List<Selection<?>> colunas = new ArrayList<>();
+		colunas.add(tema.get("id").alias("id"));
+
+		if (campos.contains("descricao"))
+			colunas.add(tema.get("descricao").alias("descricao"));
+
+		if (campos.contains("quantidadePostagens")) {
+			Join<Tema, Postagem> postagem = tema.join("postagem", JoinType.LEFT);
+			colunas.add(entityManager.getCriteriaBuilder().count(postagem.get("id")).alias("quantidadePostagens"));
+			consulta.groupBy(tema.get("id"), tema.get("descricao"));
+		}
+
+		consulta.multiselect(colunas).where(condicoes.toArray(Predicate[]::new));
+
+	}
+
+	private static Map<String, Object> campos(Tuple linha, Set<String> campos) {
+
+		Map<String, Object> resultado = new LinkedHashMap<>();
+
+		for (String campo : CAMPOS)
+			if (campos.contains(campo))
+				resultado.put(campo, linha.get(campo));
+
+		return resultado;
+
+	}
+
+}
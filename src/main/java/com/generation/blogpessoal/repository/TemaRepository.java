@@ -1,14 +1,76 @@
 package com.generation.blogpessoal.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.TemaResumo;
+import com.generation.blogpessoal.model.VersaoTema;
 
-public interface TemaRepository extends JpaRepository<Tema, Long> {
+import jakarta.persistence.QueryHint;
 
+public interface TemaRepository extends JpaRepository<Tema, Long>, TemaCamposRepository {
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
    public List<Tema> findAllByDescricaoContainingIgnoreCase(@Param("descricao") String descricao);
+   /*HINT_CACHEABLE: O resultado da consulta fica no cache de consultas do Hibernate (região default-query-results-region).
+    * O Hibernate descarta o resultado guardado sempre que a tabela tb_temas for alterada.*/
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+   @Query("SELECT new com.generation.blogpessoal.model.TemaResumo(t.id, t.descricao, COUNT(p.id)) "
+         + "FROM Tema t LEFT JOIN t.postagem p GROUP BY t.id, t.descricao ORDER BY t.id")
+   public List<TemaResumo> findAllResumos();
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+   @Query("SELECT new com.generation.blogpessoal.model.TemaResumo(t.id, t.descricao, COUNT(p.id)) "
+         + "FROM Tema t LEFT JOIN t.postagem p "
+         + "WHERE LOWER(t.descricao) LIKE LOWER(CONCAT('%', :#{escape(#descricao)}, '%')) ESCAPE :#{escapeCharacter()} "
+         + "GROUP BY t.id, t.descricao ORDER BY t.id")
+   public List<TemaResumo> findAllResumosByDescricao(@Param("descricao") String descricao);
+   /*escape() e escapeCharacter() (SpEL do Spring Data) escapam o %, o _ e a \ do texto pesquisado, como faz o
+    * findAllByDescricaoContainingIgnoreCase: /temas/descricao/50% procura pelo texto "50%", e o % e o _ não funcionam
+    * como curingas do LIKE.*/
+
+   @Query("SELECT new com.generation.blogpessoal.model.TemaResumo(t.id, t.descricao, COUNT(p.id)) "
+         + "FROM Tema t LEFT JOIN t.postagem p WHERE t.id = :id GROUP BY t.id, t.descricao")
+   public Optional<TemaResumo> findResumoById(@Param("id") Long id);
+   /*As consultas de resumo devolvem apenas o id, a descrição e a quantidade de postagens de cada tema. A contagem é
+    * feita pelo Banco de dados com um LEFT JOIN e GROUP BY, então nenhuma postagem é carregada em memória. As listagens
+    * também usam o cache de consultas, que é descartado quando tb_temas ou tb_postagens forem alteradas.*/
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+   @Query("SELECT new com.generation.blogpessoal.model.VersaoTema(t.id, t.descricao, "
+         + "(SELECT COUNT(p.id) FROM Postagem p), (SELECT MAX(p.data) FROM Postagem p)) FROM Tema t ORDER BY t.id")
+   public List<VersaoTema> findAllVersoes();
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+   @Query("SELECT new com.generation.blogpessoal.model.VersaoTema(t.id, t.descricao, "
+         + "(SELECT COUNT(p.id) FROM Postagem p), (SELECT MAX(p.data) FROM Postagem p)) FROM Tema t "
+         + "WHERE LOWER(t.descricao) LIKE LOWER(CONCAT('%', :#{escape(#descricao)}, '%')) ESCAPE :#{escapeCharacter()} "
+         + "ORDER BY t.id")
+   public List<VersaoTema> findAllVersoesByDescricao(@Param("descricao") String descricao);
+   /*As versões das listagens de temas (VersaoTema), usadas no ETag antes das consultas de resumo: o cliente que já
+    * tem a lista atual recebe 304 Not Modified sem que as postagens de cada tema sejam contadas. Os totais de
+    * tb_postagens são subconsultas sem relação com o tema, que o Banco de dados calcula uma única vez.*/
+
+   @Modifying
+   @Query("DELETE FROM Tema t WHERE t.id = :id")
+   public int excluir(@Param("id") Long id);
+   /*Apaga o tema sem carregá-lo e sem o CascadeType.REMOVE da lista de postagens (que carregaria e apagaria as postagens
+    * uma a uma). As postagens do tema precisam ser apagadas antes, como faz o TemaService.*/
+
+   @Query("SELECT t.id FROM Tema t WHERE t.id IN :ids")
+   public Set<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+   /*Retorna, entre os ids informados, os que existem na tabela tb_temas. Usado na importação em lote para conferir os
+    * temas de todas as postagens do lote com uma única consulta.*/
 
-}
\ No newline at end of file
+}
@@ -1,13 +1,44 @@
 package com.generation.blogpessoal.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.model.UsuarioResumo;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long>{
 
 	public Optional<Usuario> findByUsuario(String usuario);
+
+	@Query("SELECT u.id FROM Usuario u WHERE u.id IN :ids")
+	public Set<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+	/*Retorna, entre os ids informados, os que existem na tabela tb_usuarios (usado na importação em lote).*/
+
+	@Query("SELECT new com.generation.blogpessoal.model.UsuarioResumo(u.id, u.nome, u.usuario, u.foto) "
+			+ "FROM Usuario u WHERE u.id > :id ORDER BY u.id")
+	public List<UsuarioResumo> findResumosApos(@Param("id") Long id, Pageable pageable);
+
+	@Query("SELECT new com.generation.blogpessoal.model.UsuarioResumo(u.id, u.nome, u.usuario, u.foto, COUNT(p.id)) "
+			+ "FROM Usuario u LEFT JOIN u.postagem p WHERE u.id > :id "
+			+ "GROUP BY u.id, u.nome, u.usuario, u.foto ORDER BY u.id")
+	public List<UsuarioResumo> findResumosComContagemApos(@Param("id") Long id, Pageable pageable);
+	/*Listagem de usuários em páginas ordenadas pelo id (o cursor é o id do último usuário da página anterior). As
+	 * consultas selecionam apenas as colunas do resumo; a versão com contagem acrescenta um LEFT JOIN com tb_postagens,
+	 * que usa o índice idx_postagens_usuario_data.*/
+
+	@Query("SELECT new com.generation.blogpessoal.model.UsuarioResumo(u.id, u.nome, u.usuario, u.foto) "
+			+ "FROM Usuario u WHERE u.id = :id")
+	public Optional<UsuarioResumo> findResumoById(@Param("id") Long id);
+
+	@Query("SELECT new com.generation.blogpessoal.model.UsuarioResumo(u.id, u.nome, u.usuario, u.foto, COUNT(p.id)) "
+			+ "FROM Usuario u LEFT JOIN u.postagem p WHERE u.id = :id GROUP BY u.id, u.nome, u.usuario, u.foto")
+	public Optional<UsuarioResumo> findResumoComContagemById(@Param("id") Long id);
 	
 }
\ No newline at end of file
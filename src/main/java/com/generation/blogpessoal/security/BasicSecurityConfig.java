@@ -2,22 +2,26 @@ package com.generation.blogpessoal.security;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration /*
 				 * indica que a Classe é do tipo configuração, ou seja, define uma Classe como
@@ -32,37 +36,66 @@ public class BasicSecurityConfig {
 	@Autowired
 	private JwtAuthFilter authFilter;
 
+	@Autowired
+	private UserDetailsServiceImpl userDetailsService;
+	/*A Classe UserDetailsServiceImpl já é um Bean (anotação @Service). Ela é injetada aqui, em vez de ser instanciada
+	 * novamente, para que o JwtAuthFilter e o authenticationProvider usem a mesma instância e, portanto, o mesmo cache
+	 * de usuários.*/
+
+	@Value("${blogpessoal.senha.forca:10}")
+	private int forcaSenha;
+	/*Fator de custo do BCrypt: cada unidade a mais dobra o tempo para criptografar e validar uma senha.*/
+
+	@Value("${blogpessoal.senha.threads:0}")
+	private int threadsSenha;
+	/*Quantidade de threads dedicadas ao BCrypt. Quando não é informada (0), usa a quantidade de processadores.*/
+
+	@Value("${blogpessoal.senha.fila:100}")
+	private int filaSenha;
+
+	@Value("${blogpessoal.senha.espera:5s}")
+	private Duration esperaSenha;
+	/*Tamanho da fila e tempo máximo de espera de uma requisição pelo BCrypt antes de receber o HTTP Status 503.*/
+
+	@Value("${blogpessoal.credenciais.cache.tamanho-maximo:10000}")
+	private long tamanhoCacheCredenciais;
+
+	@Value("${blogpessoal.credenciais.cache.expiracao:1m}")
+	private Duration expiracaoCacheCredenciais;
+	/*Limite e validade do cache de verificações de senha (CachingAuthenticationProvider). Com expiracao=0 nenhuma
+	 * verificação é guardada.*/
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@Bean /*
 			 * Bean: No Spring, os objetos que formam a espinha dorsal da sua aplicação e
 			 * que são gerenciados pelo Spring são chamados de Beans. Um Bean é um objeto
 			 * que é instanciado, montado e gerenciado pelo Spring.
 			 */
-	UserDetailsService userDetailsService() {
-
-		return new UserDetailsServiceImpl();
-		/*o Método userDetailsService, que retornará uma instância da Classe UserDetailsServiceImpl, que implementa a Interface 
-		 * userDetailsService. */
-	}
-
-	@Bean
 	PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
-		/*Nós utilizaremos este Método para Criptografar e Validar a senha do usuário.*/
+		int threads = threadsSenha > 0 ? threadsSenha : Runtime.getRuntime().availableProcessors();
+		return new BoundedPasswordEncoder(new BCryptPasswordEncoder(forcaSenha), threads, filaSenha, esperaSenha);
+		/*Nós utilizaremos este Método para Criptografar e Validar a senha do usuário. O mesmo Bean é usado na autenticação
+		 * e pelo UsuarioService, no cadastro e na atualização dos usuários.*/
 	}
 
 	@Bean
-	AuthenticationProvider authenticationProvider() {
+	CachingAuthenticationProvider authenticationProvider() {
 		/*o Método authenticationProvider, que retornará uma instância da Classe AuthenticationProvider, informando o Método de 
 		 * autenticação que será utilizado.*/
 		DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
 		/* Cria um Objeto da Classe DaoAuthenticationProvider, chamado authenticationProvider. A Classe DaoAuthenticationProvider 
 		 * é utilizada para autenticar um Objeto da Classe Usuario através do usuario (e-mail) e a senha, validando os dados no 
 		 * Banco de dados de aplicação, através da Classe UserDetailsServiceImpl.*/
-		authenticationProvider.setUserDetailsService(userDetailsService());
+		authenticationProvider.setUserDetailsService(userDetailsService);
 		/*rá utilizado para validar o usuario (e-mail) do Objeto da Classe Usuario.*/
 		authenticationProvider.setPasswordEncoder(passwordEncoder());
 		/* Adiciona um Objeto da Classe PasswordEncoder através do Método setPasswordEncoder(), que será utilizado para validar a senha do Usuário.*/
-		return authenticationProvider;
+		return new CachingAuthenticationProvider(authenticationProvider, tamanhoCacheCredenciais, expiracaoCacheCredenciais,
+				meterRegistry);
+		/*O DaoAuthenticationProvider é envolvido pelo CachingAuthenticationProvider, que guarda por pouco tempo as
+		 * verificações de senha bem-sucedidas, para que os clientes que usam HTTP Basic não executem o BCrypt a cada requisição.*/
 	}
 
 	@Bean
@@ -104,13 +137,22 @@ public class BasicSecurityConfig {
 				.authenticationProvider(authenticationProvider())
 				/*Através do Método .anyRequest().authenticated(), informamos ao sistema que todos os endpoints que não estiverem
 				 *  especificados na lista acima, a autenticação será obrigatória.*/
-				.addFilterBefore(authFilter, UsernamePasswordAuthenticationFilter.class).httpBasic(withDefaults());
-				/*informamos ao sistema que o servidor irá receber requisições que devem ter o esquema HTTP Basic de autenticação. O 
-				 * Método .withDefaults() inicializa o esquema de autenticação HTTP Basic seguindo os padrões fornecidos pela Spring 
-				 * Security.*/
+				.addFilterBefore(authFilter, UsernamePasswordAuthenticationFilter.class)
+				.httpBasic(basic -> basic.authenticationEntryPoint(new CriptografiaOcupadaEntryPoint(basicEntryPoint())));
+				/*informamos ao sistema que o servidor irá receber requisições que devem ter o esquema HTTP Basic de autenticação. A
+				 * resposta de uma autenticação recusada é a do CriptografiaOcupadaEntryPoint: HTTP Status 503 quando a senha não
+				 * pôde ser verificada porque o BCrypt está sobrecarregado e, nos demais casos, o HTTP Status 401 do
+				 * BasicAuthenticationEntryPoint, como no padrão da Spring Security.*/
 
 		return http.build();
 		/*: Através do Método return http.build(), o Objeto http com as configurações implementadas será instanciado.*/
 	}
 
-}
\ No newline at end of file
+	private static BasicAuthenticationEntryPoint basicEntryPoint() {
+		BasicAuthenticationEntryPoint entryPoint = new BasicAuthenticationEntryPoint();
+		entryPoint.setRealmName("Realm");
+		/*Mesmo realm do padrão da Spring Security.*/
+		return entryPoint;
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.generation.blogpessoal.security;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/*Executa a criptografia e a validação das senhas em um grupo fixo de threads, com uma fila limitada. O BCrypt é
+ * propositalmente lento e consome CPU, então, em um pico de logins ou cadastros, as requisições que precisam dele
+ * esperam na fila (até o tempo definido em espera) ou são recusadas com uma CriptografiaOcupadaException (HTTP Status
+ * 503), em vez de ocuparem todas as threads do servidor e atrasarem as requisições de leitura, que não dependem do
+ * BCrypt.*/
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+	private final PasswordEncoder passwordEncoder;
+	private final ThreadPoolExecutor executor;
+	private final Duration espera;
+
+	public BoundedPasswordEncoder(PasswordEncoder passwordEncoder, int threads, int fila, Duration espera) {
+
+		this.passwordEncoder = passwordEncoder;
+		this.espera = espera;
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(fila), new FabricaDeThreads(), new ThreadPoolExecutor.AbortPolicy());
+		/*AbortPolicy: quando a fila estiver cheia, a tarefa é recusada na hora (RejectedExecutionException), sem bloquear
+		 * a thread da requisição.*/
+
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return executar(() -> passwordEncoder.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return executar(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return passwordEncoder.upgradeEncoding(encodedPassword);
+	}
+
+	private <T> T executar(Callable<T> tarefa) {
+
+		Future<T> resultado;
+
+		try {
+			resultado = executor.submit(tarefa);
+		} catch (RejectedExecutionException e) {
+			throw new CriptografiaOcupadaException(espera, e);
+		}
+
+		try {
+			return resultado.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			resultado.cancel(true);
+			/*Se a tarefa ainda estiver na fila, ela é descartada e não chega a consumir CPU.*/
+			throw new CriptografiaOcupadaException(espera, e);
+		} catch (InterruptedException e) {
+			resultado.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new CriptografiaOcupadaException(espera, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException erro)
+				throw erro;
+			throw new IllegalStateException(e.getCause());
+		}
+
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	private static class FabricaDeThreads implements ThreadFactory {
+
+		private final AtomicInteger contador = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable tarefa) {
+			Thread thread = new Thread(tarefa, "criptografia-senha-" + contador.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
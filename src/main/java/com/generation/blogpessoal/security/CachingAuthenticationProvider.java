@@ -0,0 +1,121 @@
+package com.generation.blogpessoal.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/*Cache das verificações de senha bem-sucedidas, usado pelo HTTP Basic e pelo /usuarios/logar. Sem ele, cada requisição
+ * com HTTP Basic executa o BCrypt, que custa dezenas de milissegundos de CPU. Quando o mesmo usuário e a mesma senha já
+ * foram verificados há menos de expiracao, a autenticação é aceita sem o BCrypt.
+ * A chave do cache é um HMAC-SHA256 do usuário e da senha, calculado com uma chave aleatória criada na inicialização da
+ * aplicação (e nunca gravada), então nem a senha nem um hash que possa ser testado fora da aplicação ficam em memória.
+ * Senhas erradas não são guardadas e sempre passam pelo BCrypt. O cache é limitado a tamanhoMaximo credenciais.*/
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+	private static final String ALGORITMO = "HmacSHA256";
+
+	private final AuthenticationProvider authenticationProvider;
+	private final SecretKeySpec chave;
+	private final Cache<String, UserDetails> cache;
+
+	public CachingAuthenticationProvider(AuthenticationProvider authenticationProvider, long tamanhoMaximo,
+			Duration expiracao, MeterRegistry meterRegistry) {
+
+		this.authenticationProvider = authenticationProvider;
+
+		byte[] bytes = new byte[32];
+		new SecureRandom().nextBytes(bytes);
+		this.chave = new SecretKeySpec(bytes, ALGORITMO);
+
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(tamanhoMaximo)
+				.expireAfterWrite(expiracao)
+				.recordStats()
+				.build();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "credenciais");
+	}
+
+	@Override
+	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+
+		if (!(authentication.getCredentials() instanceof String senha))
+			return authenticationProvider.authenticate(authentication);
+
+		String chaveCache = hmac(authentication.getName(), senha);
+		UserDetails usuario = cache.getIfPresent(chaveCache);
+
+		if (usuario != null)
+			return autenticado(authentication, usuario);
+
+		Authentication resultado = authenticationProvider.authenticate(authentication);
+		/*A verificação completa (usuário no UserDetailsServiceImpl e senha no BCrypt). Uma senha errada lança uma
+		 * AuthenticationException e não chega ao cache.*/
+
+		if (resultado != null && resultado.getPrincipal() instanceof UserDetails verificado)
+			cache.put(chaveCache, verificado);
+
+		return resultado;
+
+	}
+
+	@Override
+	public boolean supports(Class<?> authentication) {
+		return authenticationProvider.supports(authentication);
+	}
+
+	public void invalidar(String userName) {
+		/*Remove as credenciais guardadas de um usuário, chamado pelo UsuarioService quando a senha ou o e-mail mudam, para
+		 * que a senha antiga deixe de ser aceita imediatamente. Como a chave do cache é um hash, as entradas são procuradas
+		 * pelo usuário guardado em cada uma; a alteração de um usuário é rara, então a varredura do cache é aceitável.*/
+		if (userName != null)
+			cache.asMap().values().removeIf(usuario -> userName.equals(usuario.getUsername()));
+	}
+
+	private static Authentication autenticado(Authentication authentication, UserDetails usuario) {
+		UsernamePasswordAuthenticationToken resultado = UsernamePasswordAuthenticationToken.authenticated(usuario, null,
+				usuario.getAuthorities());
+		resultado.setDetails(authentication.getDetails());
+		return resultado;
+		/*Um novo token a cada requisição, com os detalhes (endereço do cliente) da requisição atual.*/
+	}
+
+	private String hmac(String usuario, String senha) {
+
+		try {
+			Mac mac = Mac.getInstance(ALGORITMO);
+			mac.init(chave);
+
+			byte[] bytesUsuario = usuario.getBytes(StandardCharsets.UTF_8);
+			mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytesUsuario.length).array());
+			mac.update(bytesUsuario);
+			mac.update(senha.getBytes(StandardCharsets.UTF_8));
+			/*O tamanho do usuário entra no cálculo para que usuário e senha não possam ser combinados de outra forma com o
+			 * mesmo resultado.*/
+
+			return Base64.getEncoder().withoutPadding().encodeToString(mac.doFinal());
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.generation.blogpessoal.security;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*Resposta do HTTP Basic quando a autenticação falha. Se a senha não pôde ser verificada porque o BCrypt está
+ * sobrecarregado (CriptografiaOcupadaException), o cliente recebe o HTTP Status 503 com o cabeçalho Retry-After, para
+ * tentar de novo mais tarde; nos demais casos a resposta continua a do entryPoint padrão (HTTP Status 401).*/
+public class CriptografiaOcupadaEntryPoint implements AuthenticationEntryPoint {
+
+	private final AuthenticationEntryPoint entryPoint;
+
+	public CriptografiaOcupadaEntryPoint(AuthenticationEntryPoint entryPoint) {
+		this.entryPoint = entryPoint;
+	}
+
+	@Override
+	public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
+			throws IOException, ServletException {
+
+		if (authException instanceof CriptografiaOcupadaException ocupada) {
+			response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ocupada.getTentarNovamente()));
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), ocupada.getMessage());
+			return;
+		}
+
+		entryPoint.commence(request, response, authException);
+
+	}
+
+}
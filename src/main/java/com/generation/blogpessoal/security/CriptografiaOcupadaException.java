@@ -0,0 +1,28 @@
+package com.generation.blogpessoal.security;
+
+import java.time.Duration;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/*Lançada pelo BoundedPasswordEncoder quando a fila do BCrypt está cheia ou a espera passou do limite. É uma
+ * AuthenticationException para que o BasicAuthenticationFilter a entregue ao CriptografiaOcupadaEntryPoint, que responde
+ * com o HTTP Status 503 e o cabeçalho Retry-After, e não seja confundida com uma senha errada. Como é uma
+ * InternalAuthenticationServiceException, o ProviderManager a repassa na hora, sem tentar a autenticação de novo em outro
+ * AuthenticationManager, o que colocaria mais uma tarefa na fila.*/
+public class CriptografiaOcupadaException extends InternalAuthenticationServiceException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long tentarNovamente;
+
+	public CriptografiaOcupadaException(Duration espera, Throwable cause) {
+		super("Servidor ocupado, tente novamente!", cause);
+		this.tentarNovamente = Math.max(1, (espera.toMillis() + 999) / 1000);
+		/*Segundos sugeridos no cabeçalho Retry-After: o tempo máximo de espera pela fila, arredondado para cima.*/
+	}
+
+	public long getTentarNovamente() {
+		return tentarNovamente;
+	}
+
+}
@@ -16,6 +16,7 @@ import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,6 +31,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 	@Autowired
 	private UserDetailsServiceImpl userDetailsService;
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+	/*Conta os tokens recusados pelo filtro na métrica blogpessoal.jwt.falhas, separados pelo motivo da recusa.*/
+
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, /* responsável por implementar um Filtro de Servlet personalizado.*/
 			HttpServletResponse response, FilterChain filterChain)
@@ -58,16 +63,38 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 	                    
 	                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 	                    SecurityContextHolder.getContext().setAuthentication(authToken);
-	                }
+	                } else
+	                    registrarFalha("invalido");
 	            
 	            }
-	            
-	            filterChain.doFilter(request, response);
 
 	        }catch(ExpiredJwtException | UnsupportedJwtException | MalformedJwtException 
 	                | SignatureException | ResponseStatusException e){
+	            registrarFalha(motivo(e));
 	            response.setStatus(HttpStatus.FORBIDDEN.value());
 	            return;
 	        }
+
+		  filterChain.doFilter(request, response);
+		  /*O restante da cadeia fica fora do try: apenas as exceções da leitura e da validação do token são recusadas aqui e
+		   * contadas em blogpessoal.jwt.falhas. As falhas dos filtros seguintes (o HTTP Basic, por exemplo) e dos
+		   * controllers seguem o tratamento da Spring Security e do Spring MVC.*/
 	    }
+
+	private void registrarFalha(String motivo) {
+		meterRegistry.counter("blogpessoal.jwt.falhas", "motivo", motivo).increment();
+	}
+
+	private static String motivo(RuntimeException e) {
+		if (e instanceof ExpiredJwtException)
+			return "expirado";
+		if (e instanceof SignatureException)
+			return "assinatura";
+		if (e instanceof MalformedJwtException)
+			return "malformado";
+		if (e instanceof UnsupportedJwtException)
+			return "nao_suportado";
+		return "usuario";
+		/*ResponseStatusException: o token é válido, mas o usuário não existe mais no Banco de dados.*/
+	}
 	}
\ No newline at end of file
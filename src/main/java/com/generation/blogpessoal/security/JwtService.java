@@ -4,16 +4,25 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Component /* @Component, o que indica que esta Classe é uma Classe de Componente. Classe de Componente é uma Classe gerenciada 
 pelo Spring, que permite Injetar e Instanciar qualquer Dependência especificada na implementação da Classe, em qualquer outra 
@@ -30,6 +39,28 @@ public class JwtService {
      chaves muito fortes, difíceis de serem quebradas.
      Para gerar esta chave, utilizamos o site Key Generator (https://generate-random.org/encryption-key-generator),*/
 	
+	private final Key signKey;
+	private final JwtParser jwtParser;
+	private final Cache<String, Claims> claimsCache;
+	/*A chave de assinatura e o JwtParser são criados uma única vez e reutilizados em todas as requisições. As claims de
+	 * cada token já verificado ficam guardadas no claimsCache até o horário de expiração do próprio token (claim exp),
+	 * então um token repetido não precisa ser decodificado nem ter a assinatura HMAC verificada novamente. O cache é
+	 * limitado a tamanhoMaximoCache tokens, descartando os menos usados quando o limite é atingido.*/
+	
+	public JwtService(@Value("${blogpessoal.jwt.cache.tamanho-maximo:10000}") long tamanhoMaximoCache,
+			MeterRegistry meterRegistry) {
+		this.signKey = getSignKey();
+		this.jwtParser = Jwts.parserBuilder().setSigningKey(signKey).build();
+		this.claimsCache = Caffeine.newBuilder()
+				.maximumSize(tamanhoMaximoCache)
+				.expireAfter(new ExpiracaoDoToken())
+				.recordStats()
+				.build();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwt");
+		/*Os acertos e falhas do cache de claims ficam disponíveis nas métricas cache.gets do cache "jwt".*/
+	}
+	
 	private Key getSignKey() {
 		/*getSignKey(), retornará um Objeto da Interface Key, que é responsável por definir as 3 características compartilhadas 
 		 * por todos os objetos do tipo key (Chave de assinatura): Algoritmo, Codificação e Formato.*/
@@ -54,13 +85,11 @@ public class JwtService {
 		 * Claims são declarações inseridas no payload do Token JWT, ou seja, são informações declaradas sobre um assunto.
 		 * "sub": "admin@email.com.br"
 		 * sub é uma claim, que contém o e-mail do usuário.*/
-		return Jwts.parserBuilder()
-				/*Através do Método parserBuilder(), da Classe Jwts, será criada uma nova instância da Interface JWT. */
-				.setSigningKey(getSignKey()).build()
-				.parseClaimsJws(token).getBody();
-		/*setSigningKey(getSignKey()).build(), da Interface JwtParserBuilder, verifica se a assinatura do Token JWT é válida. 
-		 * Caso seja válida, o Método parseClaimsJws(token).getBody(), da Interface JwtParser, extrai todas as claims do corpo 
-		 * do Token e retorna todas as claims encontradas, através do comando return.*/
+		return claimsCache.get(token, chave -> jwtParser.parseClaimsJws(chave).getBody());
+		/*Se o token ainda não estiver no cache, o jwtParser (criado com a chave de assinatura) verifica se a assinatura do 
+		 * Token JWT é válida. Caso seja válida, o Método parseClaimsJws(token).getBody(), da Interface JwtParser, extrai todas 
+		 * as claims do corpo do Token, que são guardadas no cache e retornadas através do comando return. Tokens inválidos ou 
+		 * expirados lançam a exceção do JwtParser e nunca são guardados no cache.*/
 	}
 	
 	public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -125,9 +154,9 @@ public class JwtService {
 				 * a claim exp (expiration - data e hora da expiração), preenchida com a data e a hora (incluindo os milissegundos da hora) 
 				 * exata do momento da criação do token, somada ao tempo limite do token, no Payload do Token JWT. Em nosso exemplo, o limite 
 				 * de expiração do Token é de 60 minutos 🡪 1 hora./ 60.000 milisegundos =1 minuto/1000 * 60 * 60 = 3.600.000 milissegundos */
-				.signWith(getSignKey(), SignatureAlgorithm.HS256).compact();
-				/*O Método .signWith(getSignKey(), SignatureAlgorithm.HS256).compact(), da Classe Jwts, é responsável por inserir a assinatura
-				 *  do Token (Método getSignKey()) e o Algoritmo de Encriptação do Token JWT (HMAC SHA256 - HS256) do Token JWT. O 
+				.signWith(signKey, SignatureAlgorithm.HS256).compact();
+				/*O Método .signWith(signKey, SignatureAlgorithm.HS256).compact(), da Classe Jwts, é responsável por inserir a assinatura
+				 *  do Token (atributo signKey) e o Algoritmo de Encriptação do Token JWT (HMAC SHA256 - HS256) do Token JWT. O 
 				 *  Método .compact() finaliza a criação do Token JWT e o serializa em uma String compacta e segura para URL, de acordo 
 				 *  com as regras do JWT. / O Algoritmo de Encriptação do Token JWT será inserido no Header (Cabeçalho do Token JWT), na forma 
 				 *  de um Objeto JSON, */
@@ -137,5 +166,28 @@ public class JwtService {
 		return createToken(claims, userName);
 	}
 	
+	private static class ExpiracaoDoToken implements Expiry<String, Claims> {
+		/*Define o tempo de permanência de cada token no cache: o tempo que falta até a claim exp do próprio token.*/
+		
+		@Override
+		public long expireAfterCreate(String token, Claims claims, long currentTime) {
+			Date expiracao = claims.getExpiration();
+			
+			if (expiracao == null)
+				return 0;
+			
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiracao.getTime() - System.currentTimeMillis()));
+		}
+		
+		@Override
+		public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+		
+		@Override
+		public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
 
 }
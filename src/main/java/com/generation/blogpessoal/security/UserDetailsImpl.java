@@ -13,9 +13,11 @@ public class UserDetailsImpl implements UserDetails {
 		private static final long serialVersionUID = 1L; 
 		//serialVersionUID: Usado para garantir a compatibilidade durante a serialização.
 		
+		private Long id;
 		private String userName;
 		private String password;
 		//userName e password: Armazenam o nome de usuário e a senha.
+		//id: identificador do usuário, usado pelos endpoints que dependem do usuário autenticado (/usuarios/meu-feed).
 		private List<GrantedAuthority> authorities;
 		//authorities: Lista de autoridades (permissões) do usuário.
 		/*Define o Atributo authorities como uma Collection List do tipo GrantedAuthority. O atributo authorities é responsável
@@ -25,6 +27,7 @@ public class UserDetailsImpl implements UserDetails {
 		 *   que retornará uma coleção (lista) com os valores do atributo com o mesmo nome.*/
 		
 		public UserDetailsImpl(Usuario user) {
+			this.id = user.getId();
 			this.userName = user.getUsuario();
 			this.password = user.getSenha();
 			/*O primeiro construtor inicializa userName e password com os valores do 
@@ -34,6 +37,10 @@ public class UserDetailsImpl implements UserDetails {
 		public UserDetailsImpl() {} 
 		//O segundo construtor é um construtor padrão sem parâmetros*/
 		
+		public Long getId() {
+			return id;
+		}
+		
 		@Override /*indica que este Método está sendo Sobrescrito (Polimorfismo de Sobrescrita), ou seja, é um Método da Interface
 		 UserDetails, que obrigatoriamente deve ser implementado.*/
 		public Collection<? extends GrantedAuthority> getAuthorities (){ /* ? Este sinal significa que o Método pode receber um
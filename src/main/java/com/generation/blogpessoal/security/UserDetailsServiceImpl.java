@@ -1,8 +1,12 @@
 package com.generation.blogpessoal.security;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -10,30 +14,98 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import com.generation.blogpessoal.model.Usuario;
 import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Service /* indica que esta Classe é uma Classe de Serviço. Classe de Serviço é uma Classe responsável por implementar as regras
  de negócio e as tratativa de dados de uma parte do ou recurso do sistema.*/
 public class UserDetailsServiceImpl implements UserDetailsService {
-	
+
 	@Autowired //Injeção de Dependência
 	private UsuarioRepository usuarioRepository;
 	/*Cria um Objeto da Classe Optional do tipo Usuario, que receberá o retorno da Query Method findByUsuario(String usuario),
 	implementada na Interface UsuarioRepository, para checar se o usuário digitado está persistido no Banco de dados,*/
-	
+
+	private final AsyncCache<String, UserDetails> cache;
+	private final Counter consultas;
+	/*Cache dos usuários autenticados, consultado pelo JwtAuthFilter a cada requisição. Evita uma consulta na tabela
+	 * tb_usuarios por requisição: o usuário só é buscado no Banco de dados na primeira requisição ou depois que a entrada
+	 * expirar (tempo definido em expiracao). O cache é limitado a tamanhoMaximo usuários e a entrada de um usuário é
+	 * removida pelo UsuarioService sempre que os dados dele forem atualizados.*/
+
+	public UserDetailsServiceImpl(@Value("${blogpessoal.usuarios.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+			@Value("${blogpessoal.usuarios.cache.expiracao:5m}") Duration expiracao, MeterRegistry meterRegistry) {
+
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(tamanhoMaximo)
+				.expireAfterWrite(expiracao)
+				.recordStats()
+				.buildAsync();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "usuarios");
+		Gauge.builder("blogpessoal.usuarios.cache.taxa.acerto", cache, c -> c.synchronous().stats().hitRate())
+				.description("Proporção de requisições autenticadas atendidas pelo cache de usuários")
+				.register(meterRegistry);
+		this.consultas = Counter.builder("blogpessoal.usuarios.consultas")
+				.description("Consultas na tabela tb_usuarios feitas para autenticar uma requisição")
+				.register(meterRegistry);
+		/*As métricas cache.gets (hit/miss), cache.size e cache.evictions do cache "usuarios", a taxa de acerto e a
+		 * quantidade de consultas no Banco de dados ficam disponíveis nos endpoints /actuator/metrics e /actuator/prometheus.*/
+	}
+
 	@Override
 	public UserDetails loadUserByUsername(String userName) throws UsernameNotFoundException {
-		
-		Optional<Usuario> usuario = usuarioRepository.findByUsuario(userName);
-		
-		if(usuario.isPresent())
-			return new UserDetailsImpl(usuario.get());
-		else
+
+		AtomicReference<CompletableFuture<UserDetails>> carga = new AtomicReference<>();
+		CompletableFuture<UserDetails> userDetails = cache.get(userName, (chave, executor) -> {
+			carga.set(new CompletableFuture<>());
+			return carga.get();
+		});
+		/*Como no PostagemCacheService: a primeira requisição guarda no cache uma carga ainda não concluída e consulta o
+		 * Banco de dados fora do cache, e as requisições seguintes do mesmo usuário aguardam o resultado dela. Se o
+		 * usuário for invalidado durante a consulta, a carga sai do cache, e o resultado (que pode ter sido lido antes
+		 * da alteração) é entregue apenas a quem já aguardava, sem voltar para o cache. Usuários inexistentes não são
+		 * guardados.*/
+
+		if (carga.get() != null) {
+			try {
+				consultas.increment();
+				carga.get().complete(usuarioRepository.findByUsuario(userName).map(UserDetailsImpl::new).orElse(null));
+			} catch (RuntimeException e) {
+				carga.get().completeExceptionally(e);
+			}
+		}
+
+		UserDetails usuario;
+
+		try {
+			usuario = userDetails.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException erro)
+				throw erro;
+			throw e;
+		}
+
+		if (usuario == null)
 			throw new ResponseStatusException(HttpStatus.FORBIDDEN);
-		   	/*HTTP Status 403 - FORBIDDEN (Acesso Proibido - você está tentando alcançar um endereço ou um site ao qual está 
+		   	/*HTTP Status 403 - FORBIDDEN (Acesso Proibido - você está tentando alcançar um endereço ou um site ao qual está
 		   	 * proibido de acessar*/
-		
+
+		return usuario;
+
+	}
+
+	public void invalidar(String userName) {
+		/*Remove o usuário do cache, para que a próxima requisição busque os dados atualizados no Banco de dados. Uma
+		 * carga em andamento também é removida, e o resultado dela não é guardado.*/
+		if (userName != null)
+			cache.synchronous().invalidate(userName);
 	}
 
 }
@@ -0,0 +1,381 @@
+package com.generation.blogpessoal.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.pt.PortugueseAnalyzer;
+import org.apache.lucene.analysis.pt.PortugueseLightStemmer;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*Índice invertido (Apache Lucene) com o título e o texto das postagens. A busca consulta apenas as listas de postagens
+ * de cada termo pesquisado, então o custo depende da quantidade de postagens encontradas e não do tamanho da tabela.
+ * O índice é derivado do banco de dados: é atualizado pelo PostagemController a cada post/put/delete e reconstruído
+ * a partir da tabela tb_postagens quando a aplicação inicia com o índice vazio.*/
+@Service
+public class BuscaPostagemService {
+
+	private static final Logger log = LoggerFactory.getLogger(BuscaPostagemService.class);
+
+	private static final String CAMPO_ID = "id";
+	private static final String CAMPO_TEMA = "tema";
+	private static final String CAMPO_TITULO = "titulo";
+	private static final String CAMPO_TEXTO = "texto";
+
+	private static final String CHAVE_ANALISADOR = "analisador";
+	private static final String VERSAO_ANALISADOR = "2";
+	/*Deve ser alterada a cada mudança no AnalisadorPortugues, para que os índices gravados em disco sejam reconstruídos.*/
+
+	private static final int LOTE_REINDEXACAO = 500;
+	private static final int RESULTADOS_MAXIMOS = 1000;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Value("${blogpessoal.busca.diretorio:}")
+	private String diretorio;
+	/*Quando a propriedade não é informada, o índice fica apenas em memória e é reconstruído a cada inicialização.*/
+
+	private final Analyzer analyzer = new AnalisadorPortugues();
+
+	private Directory directory;
+	private IndexWriter indexWriter;
+	private SearcherManager searcherManager;
+
+	@PostConstruct
+	void abrirIndice() throws IOException {
+
+		directory = diretorio.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(diretorio));
+
+		boolean analisadorAtual = DirectoryReader.indexExists(directory) && VERSAO_ANALISADOR
+				.equals(SegmentInfos.readLatestCommit(directory).getUserData().get(CHAVE_ANALISADOR));
+		/*Um índice gravado em disco por outra versão do AnalisadorPortugues tem radicais diferentes dos gerados pela
+		 * busca. Ele é descartado (OpenMode.CREATE) e reconstruído pelo reindexarSeVazio.*/
+
+		indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(analisadorAtual
+				? IndexWriterConfig.OpenMode.CREATE_OR_APPEND : IndexWriterConfig.OpenMode.CREATE));
+		indexWriter.setLiveCommitData(Map.of(CHAVE_ANALISADOR, VERSAO_ANALISADOR).entrySet());
+		searcherManager = new SearcherManager(indexWriter, null);
+
+	}
+
+	@PreDestroy
+	void fecharIndice() throws IOException {
+
+		searcherManager.close();
+		indexWriter.close();
+		directory.close();
+
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void reindexarSeVazio() {
+
+		if (indexWriter.getDocStats().numDocs > 0)
+			return;
+
+		Thread reindexacao = new Thread(this::reindexar, "reindexacao-busca");
+		reindexacao.setDaemon(true);
+		reindexacao.start();
+		/*A reconstrução roda em segundo plano para não atrasar a inicialização. Até ela terminar, a busca retorna
+		 * resultados parciais.*/
+
+	}
+
+	public void reindexar() {
+
+		Pageable janela = PageRequest.of(0, LOTE_REINDEXACAO);
+		List<Postagem> lote = postagemRepository.findPrimeiraPagina(janela);
+		long total = 0;
+
+		while (!lote.isEmpty()) {
+
+			for (Postagem postagem : lote)
+				escrever(postagem);
+
+			total += lote.size();
+
+			Postagem ultima = lote.get(lote.size() - 1);
+			lote = postagemRepository.findPaginaApos(ultima.getData(), ultima.getId(), janela);
+
+		}
+
+		try {
+			indexWriter.commit();
+			searcherManager.maybeRefreshBlocking();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		log.info("Índice de busca reconstruído com {} postagens", total);
+
+	}
+
+	public void indexar(Postagem postagem) {
+
+		escrever(postagem);
+		atualizarLeitores();
+
+	}
+
+	public void indexarTodas(List<Postagem> postagens) {
+
+		for (Postagem postagem : postagens)
+			escrever(postagem);
+
+		atualizarLeitores();
+		/*Os leitores do índice são atualizados uma única vez para o lote inteiro.*/
+
+	}
+
+	public void remover(Long id) {
+
+		try {
+			indexWriter.deleteDocuments(new Term(CAMPO_ID, id.toString()));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		atualizarLeitores();
+
+	}
+
+	public void removerPorTema(Long temaId) {
+		/*Remove do índice todas as postagens de um tema (usado na exclusão do tema), pelo campo tema de cada documento.*/
+		try {
+			indexWriter.deleteDocuments(new Term(CAMPO_TEMA, temaId.toString()));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		atualizarLeitores();
+
+	}
+
+	public List<Long> buscar(String termo, int inicio, int quantidade) {
+		/*Retorna até quantidade ids de postagens encontradas, ordenados por relevância, a partir da posição inicio.
+		 * A relevância só pode ser calculada coletando os primeiros resultados, por isso a profundidade da busca é
+		 * limitada a RESULTADOS_MAXIMOS.*/
+
+		int fim = Math.min(inicio + quantidade, RESULTADOS_MAXIMOS);
+
+		if (inicio < 0 || inicio >= fim)
+			return List.of();
+
+		Query query = montarConsulta(termo);
+
+		if (query == null)
+			return List.of();
+
+		try {
+
+			IndexSearcher searcher = searcherManager.acquire();
+
+			try {
+
+				ScoreDoc[] resultados = searcher.search(query, fim).scoreDocs;
+				List<Long> ids = new ArrayList<>();
+
+				for (int i = inicio; i < resultados.length; i++)
+					ids.add(Long.valueOf(searcher.storedFields().document(resultados[i].doc).get(CAMPO_ID)));
+
+				return ids;
+
+			} finally {
+				searcherManager.release(searcher);
+			}
+
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+	}
+
+	private Query montarConsulta(String termo) {
+
+		MultiFieldQueryParser parser = new MultiFieldQueryParser(new String[] { CAMPO_TITULO, CAMPO_TEXTO },
+				analyzer, Map.of(CAMPO_TITULO, 2f, CAMPO_TEXTO, 1f));
+		parser.setDefaultOperator(QueryParser.Operator.AND);
+		/*Todas as palavras pesquisadas precisam aparecer na postagem (no título ou no texto), e as ocorrências no
+		 * título valem o dobro no cálculo da relevância. A sintaxe do QueryParser é escapada (e o termo convertido
+		 * para minúsculas, para que AND/OR/NOT não virem operadores), então o termo é tratado como texto livre.*/
+
+		try {
+			return parser.parse(QueryParser.escape(termo.toLowerCase(Locale.ROOT)));
+		} catch (ParseException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Termo de busca inválido!", e);
+		}
+
+	}
+
+	private void escrever(Postagem postagem) {
+
+		Document documento = new Document();
+		documento.add(new StringField(CAMPO_ID, postagem.getId().toString(), Store.YES));
+
+		if (postagem.getTema() != null && postagem.getTema().getId() != null)
+			documento.add(new StringField(CAMPO_TEMA, postagem.getTema().getId().toString(), Store.NO));
+
+		documento.add(new TextField(CAMPO_TITULO, postagem.getTitulo(), Store.NO));
+		documento.add(new TextField(CAMPO_TEXTO, postagem.getTexto(), Store.NO));
+
+		try {
+			indexWriter.updateDocument(new Term(CAMPO_ID, postagem.getId().toString()), documento);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+	}
+
+	private void atualizarLeitores() {
+		/*Torna as alterações visíveis para as próximas buscas (near real-time), sem o custo de um commit em disco.*/
+		try {
+			searcherManager.maybeRefreshBlocking();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static class AnalisadorPortugues extends Analyzer {
+		/*Quebra o texto em palavras, converte para minúsculas, remove as palavras vazias do português (de, a, o, que...)
+		 * e reduz cada palavra ao radical sem acentos (RadicalSemAcentoFilter), para que "canções" encontre "canção" e
+		 * "acao" encontre "ação".*/
+
+		@Override
+		protected TokenStreamComponents createComponents(String fieldName) {
+
+			Tokenizer tokenizer = new StandardTokenizer();
+			TokenStream stream = new LowerCaseFilter(tokenizer);
+			stream = new StopFilter(stream, PortugueseAnalyzer.getDefaultStopSet());
+			stream = new RadicalSemAcentoFilter(stream);
+
+			return new TokenStreamComponents(tokenizer, stream);
+
+		}
+
+		@Override
+		protected TokenStream normalize(String fieldName, TokenStream in) {
+			return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+		}
+
+	}
+
+	private static final class RadicalSemAcentoFilter extends TokenFilter {
+		/*O radical de uma palavra acentuada e o da mesma palavra escrita sem acentos podem ser diferentes, porque o
+		 * PortugueseLightStemmer depende dos acentos ("ações" vira "acao", mas "acoes" vira "acoe"). Cada palavra gera o
+		 * radical da palavra sem acentos, que é sempre o mesmo para as duas grafias, e, quando for diferente, também o
+		 * radical da palavra original sem acentos, na mesma posição (como um sinônimo). O primeiro garante que a busca não
+		 * dependa dos acentos; o segundo mantém o singular e o plural juntos ("canções" e "canção" viram "canca").
+		 * O mesmo analisador é usado na indexação e na busca, então os dois lados geram os mesmos radicais.*/
+
+		private final CharTermAttribute termo = addAttribute(CharTermAttribute.class);
+		private final PositionIncrementAttribute posicao = addAttribute(PositionIncrementAttribute.class);
+		private final PortugueseLightStemmer stemmer = new PortugueseLightStemmer();
+
+		private State estado;
+		private String alternativo;
+
+		RadicalSemAcentoFilter(TokenStream input) {
+			super(input);
+		}
+
+		@Override
+		public boolean incrementToken() throws IOException {
+
+			if (alternativo != null) {
+				restoreState(estado);
+				termo.setEmpty().append(alternativo);
+				posicao.setPositionIncrement(0);
+				alternativo = null;
+				return true;
+			}
+
+			if (!input.incrementToken())
+				return false;
+
+			char[] original = Arrays.copyOf(termo.buffer(), termo.length());
+			String semAcento = radical(semAcentos(original));
+			String comAcento = new String(semAcentos(radical(original).toCharArray()));
+
+			termo.setEmpty().append(semAcento);
+
+			if (!comAcento.equals(semAcento)) {
+				alternativo = comAcento;
+				estado = captureState();
+			}
+
+			return true;
+
+		}
+
+		@Override
+		public void reset() throws IOException {
+			super.reset();
+			estado = null;
+			alternativo = null;
+		}
+
+		private String radical(char[] palavra) {
+			return new String(palavra, 0, stemmer.stem(palavra, palavra.length));
+			/*stem altera o array recebido e retorna o tamanho do radical.*/
+		}
+
+		private static char[] semAcentos(char[] palavra) {
+			char[] saida = new char[palavra.length * 4];
+			return Arrays.copyOf(saida, ASCIIFoldingFilter.foldToASCII(palavra, 0, saida, 0, palavra.length));
+			/*Um caractere pode virar até quatro caracteres ASCII.*/
+		}
+
+	}
+
+}
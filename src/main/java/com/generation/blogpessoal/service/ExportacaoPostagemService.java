@@ -0,0 +1,69 @@
+package com.generation.blogpessoal.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/*Exporta todas as postagens em NDJSON (um objeto JSON por linha). Cada postagem é escrita na saída assim que chega do
+ * Banco de dados e em seguida descartada, então a memória usada não depende da quantidade de postagens da tabela.*/
+@Service
+public class ExportacaoPostagemService {
+
+	private static final int LIMPEZA = 1000;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Transactional(readOnly = true)
+	public long exportar(OutputStream saida) throws IOException {
+
+		long total = 0;
+		ObjectWriter escritor = objectMapper.writerFor(Postagem.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		/*Sem o flush a cada postagem, a saída é enviada ao cliente em blocos, conforme o buffer da resposta enche.*/
+
+		try (Stream<Postagem> postagens = postagemRepository.streamAll();
+				JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)) {
+
+			gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+			for (Postagem postagem : (Iterable<Postagem>) postagens::iterator) {
+
+				escritor.writeValue(gerador, postagem);
+				gerador.writeRaw('\n');
+
+				if (++total % LIMPEZA == 0) {
+					gerador.flush();
+					entityManager.clear();
+					/*Remove do contexto do Hibernate as postagens, temas e usuários já escritos.*/
+				}
+
+			}
+
+		}
+
+		return total;
+
+	}
+
+}
@@ -0,0 +1,224 @@
+package com.generation.blogpessoal.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.generation.blogpessoal.model.ErroImportacao;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.ResultadoImportacao;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/*Importação de postagens em lote, usada na migração de conteúdo. O corpo da requisição (um array JSON ou NDJSON, um
+ * objeto por linha) é lido aos poucos, sem carregar o arquivo inteiro em memória. Os registros são agrupados em lotes de
+ * tamanhoLote: cada lote confere os temas e usuários com uma consulta cada, é gravado em uma transação própria e os
+ * INSERTs são enviados ao Banco de dados em grupos de tamanhoJdbc (JDBC batch).*/
+@Service
+public class ImportacaoPostagemService {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private TemaRepository temaRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private BuscaPostagemService buscaPostagemService;
+
+	@Value("${blogpessoal.postagens.lote.tamanho:500}")
+	private int tamanhoLote;
+
+	@Value("${blogpessoal.postagens.lote.tamanho-jdbc:50}")
+	private int tamanhoJdbc;
+
+	public ResultadoImportacao importar(InputStream entrada) throws IOException {
+
+		ResultadoImportacao resultado = new ResultadoImportacao();
+		List<LinhaImportacao> lote = new ArrayList<>(tamanhoLote);
+		long numero = 0;
+
+		try (MappingIterator<Postagem> postagens = objectMapper.readerFor(Postagem.class).readValues(entrada)) {
+
+			while (true) {
+
+				Postagem postagem;
+				numero++;
+
+				try {
+					if (!postagens.hasNextValue())
+						break;
+
+					postagem = postagens.nextValue();
+				} catch (DatabindException e) {
+					resultado.rejeitar(numero, "Registro inválido: " + e.getOriginalMessage());
+					continue;
+					/*O registro tem JSON válido, mas não corresponde a uma Postagem (um tipo errado, por exemplo). A leitura
+					 * continua a partir do próximo registro.*/
+				} catch (StreamReadException e) {
+					resultado.rejeitar(numero, "JSON inválido, a importação foi interrompida: " + e.getOriginalMessage());
+					break;
+					/*Depois de um erro de sintaxe não é possível saber onde começa o próximo registro. Os lotes anteriores
+					 * já foram gravados.*/
+				}
+
+				String erro = validar(postagem);
+
+				if (erro != null) {
+					resultado.rejeitar(numero, erro);
+					continue;
+				}
+
+				lote.add(new LinhaImportacao(numero, postagem));
+
+				if (lote.size() >= tamanhoLote) {
+					gravar(lote, resultado);
+					lote.clear();
+				}
+
+			}
+
+		}
+
+		if (!lote.isEmpty())
+			gravar(lote, resultado);
+
+		return resultado;
+
+	}
+
+	private String validar(Postagem postagem) {
+
+		Set<ConstraintViolation<Postagem>> violacoes = validator.validate(postagem);
+
+		if (!violacoes.isEmpty())
+			return violacoes.stream().map(ConstraintViolation::getMessage).map(String::trim).sorted()
+					.collect(Collectors.joining("; "));
+
+		if (postagem.getTema() == null || postagem.getTema().getId() == null)
+			return "Tema não existe!";
+
+		return null;
+
+	}
+
+	private void gravar(List<LinhaImportacao> lote, ResultadoImportacao resultado) {
+
+		List<ErroImportacao> rejeitadas = new ArrayList<>();
+		List<Postagem> gravadas;
+
+		try {
+			gravadas = transactionTemplate.execute(status -> persistir(lote, rejeitadas));
+		} catch (DataAccessException e) {
+			for (LinhaImportacao linha : lote)
+				resultado.rejeitar(linha.numero(), "O lote não foi gravado: " + e.getMostSpecificCause().getMessage());
+			return;
+			/*A transação do lote foi desfeita (por exemplo, um tema apagado durante a importação), então nenhuma
+			 * postagem do lote foi gravada.*/
+		}
+
+		for (ErroImportacao erro : rejeitadas)
+			resultado.rejeitar(erro.getLinha(), erro.getMensagem());
+
+		resultado.importar(gravadas.size());
+		buscaPostagemService.indexarTodas(gravadas);
+
+	}
+
+	private List<Postagem> persistir(List<LinhaImportacao> lote, List<ErroImportacao> rejeitadas) {
+
+		Set<Long> temas = existentes(lote.stream().map(linha -> linha.postagem().getTema().getId()),
+				temaRepository::findIdsExistentes);
+		Set<Long> usuarios = existentes(lote.stream().map(linha -> linha.postagem().getUsuario())
+				.filter(Objects::nonNull).map(Usuario::getId), usuarioRepository::findIdsExistentes);
+		/*Uma consulta (WHERE id IN ...) para todos os temas e outra para todos os usuários do lote, em vez de uma
+		 * consulta por postagem.*/
+
+		entityManager.unwrap(Session.class).setJdbcBatchSize(tamanhoJdbc);
+
+		List<Postagem> gravadas = new ArrayList<>();
+
+		for (LinhaImportacao linha : lote) {
+
+			Postagem postagem = linha.postagem();
+
+			if (!temas.contains(postagem.getTema().getId())) {
+				rejeitadas.add(new ErroImportacao(linha.numero(), "Tema não existe!"));
+				continue;
+			}
+
+			if (postagem.getUsuario() != null && !usuarios.contains(postagem.getUsuario().getId())) {
+				rejeitadas.add(new ErroImportacao(linha.numero(), "Usuário não existe!"));
+				continue;
+			}
+
+			postagem.setId(null);
+			postagem.setVersao(null);
+			/*O id e a versão enviados no arquivo são ignorados: o id vem da sequência e a versão começa em 0.*/
+			postagem.setTema(entityManager.getReference(Tema.class, postagem.getTema().getId()));
+
+			if (postagem.getUsuario() != null)
+				postagem.setUsuario(entityManager.getReference(Usuario.class, postagem.getUsuario().getId()));
+			/*getReference apenas aponta para o registro já conferido, sem executar um SELECT.*/
+
+			entityManager.persist(postagem);
+			gravadas.add(postagem);
+
+		}
+
+		entityManager.flush();
+		entityManager.clear();
+		/*clear libera da memória as postagens já gravadas antes do próximo lote.*/
+
+		return gravadas;
+
+	}
+
+	private static Set<Long> existentes(Stream<Long> ids, Function<Collection<Long>, Set<Long>> consulta) {
+
+		Set<Long> procurados = ids.filter(Objects::nonNull).collect(Collectors.toSet());
+
+		return procurados.isEmpty() ? Set.of() : consulta.apply(procurados);
+
+	}
+
+	private record LinhaImportacao(long numero, Postagem postagem) { }
+
+}
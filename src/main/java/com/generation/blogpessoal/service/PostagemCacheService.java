@@ -0,0 +1,102 @@
+package com.generation.blogpessoal.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/*Cache das postagens mais acessadas, usado em GET /postagens/{id}. Poucas postagens recebem a maior parte dos acessos, e
+ * sem o cache cada acesso a uma delas gera consultas no Banco de dados. O cache do Caffeine é limitado a tamanhoMaximo
+ * postagens e, quando fica cheio, usa a política W-TinyLFU: mantém as postagens com mais acessos recentes e descarta as
+ * que foram acessadas poucas vezes. Cada entrada expira depois de expiracao, um limite para alterações feitas fora
+ * desta aplicação (em outra instância, por exemplo).
+ * As postagens guardadas são compartilhadas entre as requisições e não devem ser alteradas.*/
+@Service
+public class PostagemCacheService {
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	private final AsyncCache<Long, Postagem> cache;
+	private final Counter consultas;
+
+	public PostagemCacheService(@Value("${blogpessoal.postagens.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+			@Value("${blogpessoal.postagens.cache.expiracao:10m}") Duration expiracao, MeterRegistry meterRegistry) {
+
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(tamanhoMaximo)
+				.expireAfterWrite(expiracao)
+				.recordStats()
+				.buildAsync();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "postagens");
+		Gauge.builder("blogpessoal.postagens.cache.taxa.acerto", cache, c -> c.synchronous().stats().hitRate())
+				.description("Proporção das consultas de postagem por id atendidas pelo cache")
+				.register(meterRegistry);
+		this.consultas = Counter.builder("blogpessoal.postagens.cache.consultas")
+				.description("Consultas na tabela tb_postagens feitas para carregar uma postagem no cache")
+				.register(meterRegistry);
+		/*As métricas cache.gets (hit/miss), cache.size e cache.evictions do cache "postagens", a taxa de acerto e a
+		 * quantidade de consultas no Banco de dados ficam disponíveis nos endpoints /actuator/metrics e /actuator/prometheus.*/
+	}
+
+	public Postagem buscar(Long id) {
+		/*Retorna a postagem (ou null, quando ela não existe). Se várias requisições procurarem ao mesmo tempo a mesma
+		 * postagem, que não está no cache, apenas a primeira consulta o Banco de dados: as outras aguardam o resultado dela
+		 * (single-flight). A consulta é feita na thread da primeira requisição e fora do cache, então nenhuma trava
+		 * interna do Caffeine fica presa durante a consulta. Postagens inexistentes não são guardadas.*/
+
+		AtomicReference<CompletableFuture<Postagem>> carga = new AtomicReference<>();
+		CompletableFuture<Postagem> postagem = cache.get(id, (chave, executor) -> {
+			carga.set(new CompletableFuture<>());
+			return carga.get();
+		});
+
+		if (carga.get() != null) {
+			try {
+				consultas.increment();
+				carga.get().complete(postagemRepository.findById(id).orElse(null));
+			} catch (RuntimeException e) {
+				carga.get().completeExceptionally(e);
+				/*As requisições que aguardavam recebem o mesmo erro, e a entrada é removida do cache.*/
+			}
+		}
+
+		try {
+			return postagem.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException erro)
+				throw erro;
+			throw e;
+		}
+
+	}
+
+	public void invalidar(Long id) {
+		/*Remove a postagem do cache depois de uma alteração. Se a postagem estiver sendo carregada naquele momento, o
+		 * resultado dessa carga não é guardado.*/
+		if (id != null)
+			cache.synchronous().invalidate(id);
+	}
+
+	public void invalidarTodas() {
+		/*Usado quando uma alteração atinge postagens que não são conhecidas pelo id: a exclusão de um tema (que apaga as
+		 * postagens dele) e a alteração de um tema ou de um usuário (que aparecem dentro das postagens).*/
+		cache.synchronous().invalidateAll();
+	}
+
+}
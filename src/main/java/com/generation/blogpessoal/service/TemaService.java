@@ -0,0 +1,142 @@
+package com.generation.blogpessoal.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.generation.blogpessoal.model.ExclusaoTema;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/*Exclusão de temas. As postagens do tema são apagadas em lotes de tamanhoLote, cada lote com um único DELETE em uma
+ * transação própria, sem carregar nenhuma postagem em memória. Assim um tema com muitas postagens não mantém uma
+ * transação longa aberta nem enche a memória, como acontecia com o CascadeType.REMOVE da lista Tema.postagem.
+ * A exclusão pode ser executada na própria requisição ou em segundo plano, com o andamento consultado pelo cliente.*/
+@Service
+public class TemaService {
+
+	private static final Logger log = LoggerFactory.getLogger(TemaService.class);
+
+	@Autowired
+	private TemaRepository temaRepository;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private BuscaPostagemService buscaPostagemService;
+
+	@Autowired
+	private PostagemCacheService postagemCacheService;
+
+	@Autowired
+	private AsyncTaskExecutor taskExecutor;
+
+	@Value("${blogpessoal.temas.exclusao.lote:1000}")
+	private int tamanhoLote;
+
+	private final Cache<Long, ExclusaoTema> exclusoes = Caffeine.newBuilder()
+			.expireAfterWrite(Duration.ofHours(1))
+			.build();
+	/*Andamento das exclusões em segundo plano, por id do tema. Cada registro fica disponível por 1 hora.*/
+
+	public boolean excluir(Long id) {
+		/*Exclui o tema e as postagens dele na própria requisição. Retorna false quando o tema não existe.*/
+
+		if (!temaRepository.existsById(id))
+			return false;
+
+		executar(new ExclusaoTema(id, null));
+		return true;
+
+	}
+
+	public Optional<ExclusaoTema> excluirEmSegundoPlano(Long id) {
+		/*Inicia a exclusão em uma thread do applicationTaskExecutor e retorna o registro de andamento. Se a exclusão do
+		 * mesmo tema já estiver em andamento, retorna o registro dela, sem iniciar outra.*/
+
+		if (!temaRepository.existsById(id))
+			return Optional.empty();
+
+		ExclusaoTema nova = new ExclusaoTema(id, postagemRepository.countByTemaId(id));
+		ExclusaoTema exclusao = exclusoes.asMap().compute(id,
+				(chave, atual) -> atual != null && atual.emAndamento() ? atual : nova);
+
+		if (exclusao == nova)
+			taskExecutor.execute(() -> {
+				try {
+					executar(nova);
+				} catch (RuntimeException e) {
+					log.error("Falha na exclusão do tema {}", id, e);
+				}
+			});
+
+		return Optional.of(exclusao);
+
+	}
+
+	public Optional<ExclusaoTema> andamento(Long id) {
+		return Optional.ofNullable(exclusoes.getIfPresent(id));
+	}
+
+	private void executar(ExclusaoTema exclusao) {
+
+		Long temaId = exclusao.getTemaId();
+		Pageable janela = PageRequest.of(0, tamanhoLote);
+
+		try {
+
+			List<Long> lote = postagemRepository.findIdsPorTema(temaId, janela);
+
+			while (!lote.isEmpty()) {
+
+				List<Long> ids = lote;
+				transactionTemplate.executeWithoutResult(status -> postagemRepository.excluirTodas(ids));
+				ids.forEach(postagemCacheService::invalidar);
+				exclusao.remover(ids.size());
+
+				lote = postagemRepository.findIdsPorTema(temaId, janela);
+
+			}
+
+			Integer restantes = transactionTemplate.execute(status -> {
+				int apagadas = postagemRepository.excluirPorTema(temaId);
+				temaRepository.excluir(temaId);
+				return apagadas;
+			});
+			/*Uma postagem cadastrada no tema durante a exclusão é apagada na mesma transação que apaga o tema, para que a
+			 * Chave Estrangeira não impeça a exclusão do tema.*/
+
+			if (restantes > 0) {
+				exclusao.remover(restantes);
+				postagemCacheService.invalidarTodas();
+			}
+
+			buscaPostagemService.removerPorTema(temaId);
+			exclusao.concluir();
+
+		} catch (RuntimeException e) {
+			exclusao.falhar(e.getMessage());
+			throw e;
+			/*Os lotes já apagados continuam apagados. A exclusão pode ser repetida e continua a partir das postagens que
+			 * restaram.*/
+		}
+
+	}
+
+}
@@ -7,14 +7,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.generation.blogpessoal.model.UsuarioLogin;
 import com.generation.blogpessoal.model.Usuario;
 import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.security.CachingAuthenticationProvider;
 import com.generation.blogpessoal.security.JwtService;
+import com.generation.blogpessoal.security.UserDetailsServiceImpl;
 
 @Service
 public class UsuarioService {
@@ -28,6 +30,18 @@ public class UsuarioService {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+	@Autowired
+	private UserDetailsServiceImpl userDetailsService;
+
+	@Autowired
+	private CachingAuthenticationProvider authenticationProvider;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private PostagemCacheService postagemCacheService;
+
 	public Optional<Usuario> cadastrarUsuario(Usuario usuario) {
 
 		if (usuarioRepository.findByUsuario(usuario.getUsuario()).isPresent())
@@ -41,16 +55,31 @@ public class UsuarioService {
 
 	public Optional<Usuario> atualizarUsuario(Usuario usuario) {
 		
-		if(usuarioRepository.findById(usuario.getId()).isPresent()) {
+		Optional<Usuario> usuarioAtual = usuarioRepository.findById(usuario.getId());
+
+		if(usuarioAtual.isPresent()) {
 
 			Optional<Usuario> buscaUsuario = usuarioRepository.findByUsuario(usuario.getUsuario());
 
 			if ( (buscaUsuario.isPresent()) && ( buscaUsuario.get().getId() != usuario.getId()))
 				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Usuário já existe!", null);
 
+			String usuarioAnterior = usuarioAtual.get().getUsuario();
+
 			usuario.setSenha(criptografarSenha(usuario.getSenha()));
 
-			return Optional.ofNullable(usuarioRepository.save(usuario));
+			Optional<Usuario> usuarioAtualizado = Optional.ofNullable(usuarioRepository.save(usuario));
+
+			userDetailsService.invalidar(usuarioAnterior);
+			userDetailsService.invalidar(usuario.getUsuario());
+			authenticationProvider.invalidar(usuarioAnterior);
+			authenticationProvider.invalidar(usuario.getUsuario());
+			/*Remove do cache de autenticação e do cache de credenciais tanto o usuário (e-mail) anterior quanto o novo, para
+			 * que a senha e o e-mail antigos deixem de ser aceitos imediatamente.*/
+			postagemCacheService.invalidarTodas();
+			/*O nome, o e-mail e a foto do usuário aparecem dentro das postagens guardadas no cache de postagens.*/
+
+			return usuarioAtualizado;
 			
 		}
 
@@ -88,9 +117,7 @@ public class UsuarioService {
 
 	private String criptografarSenha(String senha) {
 
-		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-		
-		return encoder.encode(senha);
+		return passwordEncoder.encode(senha);
 
 	}
 
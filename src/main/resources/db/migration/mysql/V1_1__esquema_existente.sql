@@ -0,0 +1,26 @@
+-- Bancos de dados que já existiam antes das migrações foram criados pelo spring.jpa.hibernate.ddl-auto=update quando o
+-- id das postagens era AUTO_INCREMENT e a coluna versao ainda não existia. O Flyway os registra na versão 1 sem
+-- executar o V1, então esta migração completa o esquema antes do V2. Em um banco de dados criado pelo V1 nada é alterado.
+
+-- O MySQL não tem sequências: o Hibernate usa esta tabela no lugar da sequência tb_postagens_seq. O valor inicial é
+-- ajustado pelo V2.
+CREATE TABLE IF NOT EXISTS tb_postagens_seq (
+	next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO tb_postagens_seq (next_val)
+	SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM tb_postagens_seq);
+
+-- O AUTO_INCREMENT antigo deixa de ser usado: um INSERT feito fora da aplicação não pode receber um id que o
+-- Hibernate já reservou.
+ALTER TABLE tb_postagens MODIFY id BIGINT NOT NULL;
+
+-- Coluna do controle de concorrência otimista (@Version). As postagens existentes começam na versão 0. O MySQL não
+-- tem ADD COLUMN IF NOT EXISTS, então o comando é montado a partir do information_schema.
+SET @comando = IF(EXISTS (SELECT * FROM information_schema.columns
+		WHERE table_schema = DATABASE() AND table_name = 'tb_postagens' AND column_name = 'versao'),
+	'DO 0',
+	'ALTER TABLE tb_postagens ADD COLUMN versao BIGINT NOT NULL DEFAULT 0');
+PREPARE adicionar FROM @comando;
+EXECUTE adicionar;
+DEALLOCATE PREPARE adicionar;
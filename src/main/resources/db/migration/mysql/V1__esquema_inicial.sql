@@ -0,0 +1,38 @@
+-- Esquema inicial: as tabelas que o Hibernate criava com spring.jpa.hibernate.ddl-auto=update, com a tabela de sequência
+-- e a coluna versao usadas pela Postagem. Bancos de dados que já existiam antes das migrações não executam este arquivo:
+-- o Flyway os registra na versão 1 (baseline-on-migrate) e o V1_1 acrescenta a tabela de sequência e a coluna versao.
+
+CREATE TABLE tb_temas (
+	id BIGINT NOT NULL AUTO_INCREMENT,
+	descricao VARCHAR(255) NOT NULL,
+	PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE tb_usuarios (
+	id BIGINT NOT NULL AUTO_INCREMENT,
+	nome VARCHAR(255) NOT NULL,
+	usuario VARCHAR(255) NOT NULL,
+	senha VARCHAR(255),
+	foto VARCHAR(5000),
+	PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE tb_postagens (
+	id BIGINT NOT NULL,
+	titulo VARCHAR(100),
+	texto VARCHAR(1000),
+	data DATETIME(6),
+	versao BIGINT DEFAULT 0 NOT NULL,
+	tema_id BIGINT,
+	usuario_id BIGINT,
+	PRIMARY KEY (id),
+	CONSTRAINT fk_postagens_tema FOREIGN KEY (tema_id) REFERENCES tb_temas (id),
+	CONSTRAINT fk_postagens_usuario FOREIGN KEY (usuario_id) REFERENCES tb_usuarios (id)
+) ENGINE=InnoDB;
+
+-- O MySQL não tem sequências: o Hibernate usa esta tabela no lugar da sequência tb_postagens_seq.
+CREATE TABLE tb_postagens_seq (
+	next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO tb_postagens_seq VALUES (1);
@@ -0,0 +1,44 @@
+-- Chaves Estrangeiras: nos bancos de dados criados pelo ddl-auto=update elas têm nomes gerados pelo Hibernate. São
+-- recriadas com os nomes que o PostagemController usa para identificar um tema ou usuário inexistente.
+
+SET @fk = (SELECT constraint_name FROM information_schema.key_column_usage
+	WHERE table_schema = DATABASE() AND table_name = 'tb_postagens' AND column_name = 'tema_id'
+	AND referenced_table_name IS NOT NULL LIMIT 1);
+SET @comando = CASE
+	WHEN @fk = 'fk_postagens_tema' THEN 'DO 0'
+	WHEN @fk IS NULL THEN 'ALTER TABLE tb_postagens ADD CONSTRAINT fk_postagens_tema FOREIGN KEY (tema_id) REFERENCES tb_temas (id)'
+	ELSE CONCAT('ALTER TABLE tb_postagens DROP FOREIGN KEY `', @fk, '`, ',
+		'ADD CONSTRAINT fk_postagens_tema FOREIGN KEY (tema_id) REFERENCES tb_temas (id)')
+END;
+PREPARE renomear FROM @comando;
+EXECUTE renomear;
+DEALLOCATE PREPARE renomear;
+
+SET @fk = (SELECT constraint_name FROM information_schema.key_column_usage
+	WHERE table_schema = DATABASE() AND table_name = 'tb_postagens' AND column_name = 'usuario_id'
+	AND referenced_table_name IS NOT NULL LIMIT 1);
+SET @comando = CASE
+	WHEN @fk = 'fk_postagens_usuario' THEN 'DO 0'
+	WHEN @fk IS NULL THEN 'ALTER TABLE tb_postagens ADD CONSTRAINT fk_postagens_usuario FOREIGN KEY (usuario_id) REFERENCES tb_usuarios (id)'
+	ELSE CONCAT('ALTER TABLE tb_postagens DROP FOREIGN KEY `', @fk, '`, ',
+		'ADD CONSTRAINT fk_postagens_usuario FOREIGN KEY (usuario_id) REFERENCES tb_usuarios (id)')
+END;
+PREPARE renomear FROM @comando;
+EXECUTE renomear;
+DEALLOCATE PREPARE renomear;
+
+-- findByUsuario é executado em todo login, cadastro e atualização de usuário. A restrição UNIQUE cria o índice usado
+-- pela consulta e impede dois cadastros com o mesmo e-mail, mesmo em requisições simultâneas. A migração falha se já
+-- houver e-mails repetidos na tabela, que precisam ser corrigidos antes.
+ALTER TABLE tb_usuarios ADD CONSTRAINT uk_usuarios_usuario UNIQUE (usuario);
+
+-- Índices na mesma ordem (data, id) da paginação por cursor: a listagem geral, a listagem por tema e a listagem por
+-- usuário leem apenas as linhas da página, sem ordenar a tabela. Os índices por tema e por usuário também atendem as
+-- Chaves Estrangeiras, e o MySQL descarta os índices que criou automaticamente para elas.
+CREATE INDEX idx_postagens_data ON tb_postagens (data, id);
+CREATE INDEX idx_postagens_tema_data ON tb_postagens (tema_id, data, id);
+CREATE INDEX idx_postagens_usuario_data ON tb_postagens (usuario_id, data, id);
+
+-- Nos bancos de dados criados quando o id das postagens era AUTO_INCREMENT, a tabela tb_postagens_seq criada pelo V1_1
+-- começa em 1, abaixo dos ids já usados. O próximo bloco de 50 ids reservado pelo Hibernate passa a começar depois do maior id.
+UPDATE tb_postagens_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 50 FROM tb_postagens);
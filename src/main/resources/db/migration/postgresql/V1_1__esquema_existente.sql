@@ -0,0 +1,14 @@
+-- Bancos de dados que já existiam antes das migrações foram criados pelo spring.jpa.generate-ddl=true quando o id das
+-- postagens era gerado por auto-incremento e a coluna versao ainda não existia. O Flyway os registra na versão 1 sem
+-- executar o V1, então esta migração completa o esquema antes do V2. Em um banco de dados criado pelo V1 nada é alterado.
+
+-- O Hibernate passou a gerar o id com a sequência tb_postagens_seq (blocos de 50 ids). O valor inicial é ajustado pelo V2.
+CREATE SEQUENCE IF NOT EXISTS tb_postagens_seq START WITH 1 INCREMENT BY 50;
+
+-- O auto-incremento antigo deixa de ser usado: um INSERT feito fora da aplicação não pode receber um id que o
+-- Hibernate já reservou.
+ALTER TABLE tb_postagens ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS tb_postagens_id_seq;
+
+-- Coluna do controle de concorrência otimista (@Version). As postagens existentes começam na versão 0.
+ALTER TABLE tb_postagens ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,33 @@
+-- Esquema inicial: as tabelas que o Hibernate criava com spring.jpa.generate-ddl=true, com a sequência e a coluna versao
+-- usadas pela Postagem. Bancos de dados que já existiam antes das migrações não executam este arquivo: o Flyway os
+-- registra na versão 1 (baseline-on-migrate) e o V1_1 acrescenta a sequência e a coluna versao.
+
+CREATE TABLE tb_temas (
+	id BIGSERIAL NOT NULL,
+	descricao VARCHAR(255) NOT NULL,
+	PRIMARY KEY (id)
+);
+
+CREATE TABLE tb_usuarios (
+	id BIGSERIAL NOT NULL,
+	nome VARCHAR(255) NOT NULL,
+	usuario VARCHAR(255) NOT NULL,
+	senha VARCHAR(255),
+	foto VARCHAR(5000),
+	PRIMARY KEY (id)
+);
+
+CREATE TABLE tb_postagens (
+	id BIGINT NOT NULL,
+	titulo VARCHAR(100),
+	texto VARCHAR(1000),
+	data TIMESTAMP(6),
+	versao BIGINT DEFAULT 0 NOT NULL,
+	tema_id BIGINT,
+	usuario_id BIGINT,
+	PRIMARY KEY (id),
+	CONSTRAINT fk_postagens_tema FOREIGN KEY (tema_id) REFERENCES tb_temas (id),
+	CONSTRAINT fk_postagens_usuario FOREIGN KEY (usuario_id) REFERENCES tb_usuarios (id)
+);
+
+CREATE SEQUENCE tb_postagens_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,36 @@
+-- Chaves Estrangeiras: nos bancos de dados criados pelo generate-ddl elas têm nomes gerados pelo Hibernate. São
+-- renomeadas para os nomes que o PostagemController usa para identificar um tema ou usuário inexistente.
+DO $$
+DECLARE
+	restricao RECORD;
+BEGIN
+	FOR restricao IN
+		SELECT c.conname AS nome, a.attname AS coluna
+		FROM pg_constraint c
+		JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+		WHERE c.conrelid = 'tb_postagens'::regclass AND c.contype = 'f' AND a.attname IN ('tema_id', 'usuario_id')
+	LOOP
+		IF restricao.coluna = 'tema_id' AND restricao.nome <> 'fk_postagens_tema' THEN
+			EXECUTE format('ALTER TABLE tb_postagens RENAME CONSTRAINT %I TO fk_postagens_tema', restricao.nome);
+		ELSIF restricao.coluna = 'usuario_id' AND restricao.nome <> 'fk_postagens_usuario' THEN
+			EXECUTE format('ALTER TABLE tb_postagens RENAME CONSTRAINT %I TO fk_postagens_usuario', restricao.nome);
+		END IF;
+	END LOOP;
+END $$;
+
+-- findByUsuario é executado em todo login, cadastro e atualização de usuário. A restrição UNIQUE cria o índice usado
+-- pela consulta e impede dois cadastros com o mesmo e-mail, mesmo em requisições simultâneas. A migração falha se já
+-- houver e-mails repetidos na tabela, que precisam ser corrigidos antes.
+ALTER TABLE tb_usuarios ADD CONSTRAINT uk_usuarios_usuario UNIQUE (usuario);
+
+-- Índices na mesma ordem (data, id) da paginação por cursor: a listagem geral, a listagem por tema e a listagem por
+-- usuário leem apenas as linhas da página, sem ordenar a tabela. O PostgreSQL não cria índices para as Chaves
+-- Estrangeiras; os índices por tema e por usuário também evitam a leitura da tabela inteira ao apagar um tema ou usuário.
+CREATE INDEX idx_postagens_data ON tb_postagens (data, id);
+CREATE INDEX idx_postagens_tema_data ON tb_postagens (tema_id, data, id);
+CREATE INDEX idx_postagens_usuario_data ON tb_postagens (usuario_id, data, id);
+
+-- Nos bancos de dados criados quando o id das postagens era gerado por auto-incremento, a sequência tb_postagens_seq
+-- criada pelo V1_1 começa em 1, abaixo dos ids já usados. O próximo bloco de 50 ids reservado pelo Hibernate passa a começar depois
+-- do maior id.
+SELECT setval('tb_postagens_seq', (SELECT GREATEST(COALESCE(MAX(id), 0), 1) FROM tb_postagens));
@@ -0,0 +1,172 @@
+package com.generation.blogpessoal.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.generation.blogpessoal.BlogpessoalApplication;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.security.JwtService;
+import com.generation.blogpessoal.service.UsuarioService;
+
+@EnabledIfSystemProperty(named = "carga", matches = "true")
+@EnabledIf("java21")
+/*Teste de carga: inicia a aplicação duas vezes, com as threads do Tomcat e com threads virtuais
+ * (blogpessoal.threads.virtuais), e mantém 1000 conexões simultâneas (carga.conexoes) fazendo GET /postagens com um token
+ * JWT durante carga.segundos. A vazão (requisições por segundo) das duas execuções é exibida no final. O teste é lento e
+ * exige o Java 21, então só é executado quando solicitado:
+ * mvn -P java21 test -Dtest=ThreadsVirtuaisCargaTest -Dcarga=true*/
+public class ThreadsVirtuaisCargaTest {
+
+	private static final int CONEXOES = Integer.getInteger("carga.conexoes", 1000);
+	private static final Duration AQUECIMENTO = Duration.ofSeconds(Long.getLong("carga.aquecimento", 10));
+	private static final Duration MEDICAO = Duration.ofSeconds(Long.getLong("carga.segundos", 30));
+
+	private static final String USUARIO = "carga@email.com.br";
+
+	static boolean java21() {
+		return Runtime.version().feature() >= 21;
+	}
+
+	@Test
+	@DisplayName("Comparar a vazão com e sem threads virtuais")
+	public void deveCompararVazao() throws Exception {
+
+		Resultado plataforma = medir(false);
+		Resultado virtuais = medir(true);
+
+		System.out.printf("%nConexões simultâneas: %d, medição: %d s%n", CONEXOES, MEDICAO.toSeconds());
+		System.out.printf("Threads do Tomcat: %10.1f requisições/s, %d falhas%n", plataforma.vazao(), plataforma.falhas());
+		System.out.printf("Threads virtuais:  %10.1f requisições/s, %d falhas%n", virtuais.vazao(), virtuais.falhas());
+		System.out.printf("Diferença:         %+9.1f%%%n%n", (virtuais.vazao() / plataforma.vazao() - 1) * 100);
+
+		assertEquals(0, plataforma.falhas());
+		assertEquals(0, virtuais.falhas());
+
+	}
+
+	private Resultado medir(boolean threadsVirtuais) throws Exception {
+
+		try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(BlogpessoalApplication.class)
+				.properties("server.port=0", "blogpessoal.threads.virtuais=" + threadsVirtuais,
+						"spring.datasource.url=jdbc:h2:mem:carga" + threadsVirtuais + ";MODE=MySQL",
+						"logging.level.root=WARN")
+				.run()) {
+
+			if (threadsVirtuais)
+				assertTrue(contexto.containsBean("protocolHandlerThreadsVirtuais"));
+
+			String token = preparar(contexto);
+			int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+
+			HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/postagens?tamanho=20"))
+					.header("Authorization", "Bearer " + token)
+					.timeout(Duration.ofSeconds(60))
+					.build();
+
+			HttpClient cliente = HttpClient.newBuilder()
+					.version(HttpClient.Version.HTTP_1_1)
+					.connectTimeout(Duration.ofSeconds(30))
+					.build();
+
+			AtomicBoolean executando = new AtomicBoolean(true);
+			AtomicLong respostas = new AtomicLong();
+			AtomicLong falhas = new AtomicLong();
+			List<CompletableFuture<Void>> conexoes = new ArrayList<>(CONEXOES);
+
+			for (int i = 0; i < CONEXOES; i++) {
+				CompletableFuture<Void> fim = new CompletableFuture<>();
+				repetir(cliente, requisicao, executando, respostas, falhas, fim);
+				conexoes.add(fim);
+			}
+			/*Cada "conexão" envia a próxima requisição assim que recebe a resposta da anterior, então há sempre CONEXOES
+			 * requisições em andamento.*/
+
+			Thread.sleep(AQUECIMENTO.toMillis());
+			long inicio = System.nanoTime();
+			long respostasAntes = respostas.get();
+			long falhasAntes = falhas.get();
+
+			Thread.sleep(MEDICAO.toMillis());
+			long respostasMedicao = respostas.get() - respostasAntes;
+			long falhasMedicao = falhas.get() - falhasAntes;
+			double segundos = (System.nanoTime() - inicio) / 1e9;
+
+			executando.set(false);
+			CompletableFuture.allOf(conexoes.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+
+			return new Resultado(respostasMedicao / segundos, falhasMedicao);
+
+		}
+
+	}
+
+	private static String preparar(ConfigurableApplicationContext contexto) {
+
+		contexto.getBean(UsuarioService.class).cadastrarUsuario(new Usuario(0L, "Carga", USUARIO, "carga12345", "-"));
+
+		Tema tema = new Tema();
+		tema.setDescricao("Teste de carga");
+		tema = contexto.getBean(TemaRepository.class).save(tema);
+
+		PostagemRepository postagemRepository = contexto.getBean(PostagemRepository.class);
+
+		for (int i = 0; i < 100; i++) {
+			Postagem postagem = new Postagem();
+			postagem.setTitulo("Postagem de carga " + i);
+			postagem.setTexto("Postagem criada para o teste de carga.");
+			postagem.setTema(tema);
+			postagemRepository.save(postagem);
+		}
+
+		return contexto.getBean(JwtService.class).generateToken(USUARIO);
+
+	}
+
+	private static void repetir(HttpClient cliente, HttpRequest requisicao, AtomicBoolean executando,
+			AtomicLong respostas, AtomicLong falhas, CompletableFuture<Void> fim) {
+
+		if (!executando.get()) {
+			fim.complete(null);
+			return;
+		}
+
+		cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding()).whenComplete((resposta, erro) -> {
+
+			if (erro == null && resposta.statusCode() == 200)
+				respostas.incrementAndGet();
+			else
+				falhas.incrementAndGet();
+
+			repetir(cliente, requisicao, executando, respostas, falhas, fim);
+
+		});
+
+	}
+
+	private record Resultado(double vazao, long falhas) { }
+
+}
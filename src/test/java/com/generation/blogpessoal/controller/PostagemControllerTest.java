@@ -0,0 +1,970 @@
+package com.generation.blogpessoal.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.model.ResultadoImportacao;
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.TemaResumo;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.model.VersaoTema;
+import com.generation.blogpessoal.repository.PostagemRepository;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.service.BuscaPostagemService;
+import com.generation.blogpessoal.service.UsuarioService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+/*Os testes desta Classe contam quantas instruções SQL cada requisição de postagens executa, através das estatísticas do
+ * Hibernate. As postagens são criadas com temas e usuários diferentes, então, se o Tema ou o Usuario voltarem a ser
+ * carregados com um SELECT por postagem (problema N+1), a contagem aumenta e o teste falha. O cadastro e a atualização
+ * devem executar apenas o INSERT ou o UPDATE, sem consultas para conferir a postagem e o tema.*/
+public class PostagemControllerTest {
+
+	private static final String USUARIO = "contagem_sql@email.com.br";
+	private static final String SENHA = "contagem123";
+
+	@Autowired
+	private TestRestTemplate testRestTemplate;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private TemaRepository temaRepository;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	@Autowired
+	private BuscaPostagemService buscaPostagemService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Value("${blogpessoal.postagens.consulta-lote.maximo:100}")
+	private int maximoIdsLote;
+
+	private Statistics statistics;
+
+	private Long temaId;
+
+	private Long usuarioId;
+
+	@BeforeAll
+	void start() {
+
+		usuarioService.cadastrarUsuario(new Usuario(0L, "Contagem SQL", USUARIO, SENHA, "-"));
+
+		for (int i = 0; i < 3; i++) {
+
+			Tema tema = new Tema();
+			tema.setDescricao("Tema da contagem " + i);
+			tema = temaRepository.save(tema);
+			temaId = tema.getId();
+
+			Usuario autor = usuarioService.cadastrarUsuario(new Usuario(0L,
+					"Autor " + i, "autor_contagem_" + i + "@email.com.br", "autor12345", "-")).get();
+			usuarioId = autor.getId();
+
+			for (int j = 0; j < 2; j++) {
+				Postagem postagem = new Postagem();
+				postagem.setTitulo("Contagem de consultas " + i + j);
+				postagem.setTexto("Postagem criada para contar as consultas SQL.");
+				postagem.setTema(tema);
+				postagem.setUsuario(autor);
+				buscaPostagemService.indexar(postagemRepository.save(postagem));
+			}
+
+		}
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+
+		requisicao("/postagens");
+		/*A primeira requisição autenticada carrega o usuário no cache de autenticação, para que as consultas de
+		 * autenticação não entrem na contagem dos testes.*/
+
+	}
+
+	@Test
+	@DisplayName("Listar as Postagens com uma única consulta")
+	public void deveListarPostagensComUmaConsulta() {
+		assertEquals(1, contarConsultas("/postagens?tamanho=6"));
+	}
+
+	@Test
+	@DisplayName("Percorrer todas as Postagens pelo cursor, sem repetições nem lacunas")
+	public void devePercorrerPostagensPeloCursor() throws Exception {
+
+		List<Long> empatadas = List.of(novaPostagem("Postagem empatada 1").getId(),
+				novaPostagem("Postagem empatada 2").getId(), novaPostagem("Postagem empatada 3").getId());
+		jdbcTemplate.update("UPDATE tb_postagens SET data = ? WHERE id IN (?, ?, ?)",
+				Timestamp.valueOf(LocalDateTime.of(2020, 1, 1, 12, 0)), empatadas.get(0), empatadas.get(1),
+				empatadas.get(2));
+		/*Três postagens com a mesma data: com páginas de 2 postagens, o fim de uma página cai entre elas, e o cursor
+		 * precisa do id para desempatar.*/
+
+		List<Long> esperadas = postagemRepository.findAll().stream()
+				.sorted(Comparator.comparing(Postagem::getData).thenComparing(Postagem::getId))
+				.map(Postagem::getId).toList();
+
+		List<Long> percorridas = new ArrayList<>();
+		String endereco = "/postagens?tamanho=2";
+		JsonNode pagina;
+
+		do {
+			ResponseEntity<String> resposta = requisicao(endereco);
+			assertEquals(HttpStatus.OK, resposta.getStatusCode());
+
+			pagina = objectMapper.readTree(resposta.getBody());
+			pagina.get("conteudo").forEach(postagem -> percorridas.add(postagem.get("id").asLong()));
+			assertTrue(pagina.get("conteudo").size() <= 2);
+
+			endereco = "/postagens?tamanho=2&cursor=" + pagina.get("proximo").asText();
+		} while (!pagina.get("proximo").isNull());
+
+		assertEquals(esperadas, percorridas);
+		/*Todas as postagens, cada uma uma única vez, na ordem (data, id).*/
+		assertTrue(pagina.get("proximo").isNull());
+		/*Na última página não há cursor para a próxima.*/
+
+	}
+
+	@Test
+	@DisplayName("Não deve aceitar um cursor alterado pelo cliente")
+	public void naoDeveAceitarCursorInvalido() {
+
+		Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+
+		for (String cursor : List.of("@@@",
+				base64.encodeToString("sem separador".getBytes(StandardCharsets.UTF_8)),
+				base64.encodeToString("2020-01-01T12:00|abc".getBytes(StandardCharsets.UTF_8)),
+				base64.encodeToString("ontem|1".getBytes(StandardCharsets.UTF_8))))
+			assertEquals(HttpStatus.BAD_REQUEST, requisicao("/postagens?cursor=" + cursor).getStatusCode(), cursor);
+
+	}
+
+	@Test
+	@DisplayName("Buscar as Postagens pelo título com uma única consulta")
+	public void deveBuscarPorTituloComUmaConsulta() {
+		assertEquals(1, contarConsultas("/postagens/titulo/contagem"));
+	}
+
+	@Test
+	@DisplayName("Buscar as Postagens pelo índice de busca com uma única consulta")
+	public void deveBuscarPorTermoComUmaConsulta() {
+		assertEquals(1, contarConsultas("/postagens/busca?termo=contagem"));
+	}
+
+	@Test
+	@DisplayName("Buscar as Postagens sem diferenciar os acentos")
+	public void deveBuscarSemDiferenciarAcentos() throws Exception {
+
+		Long acao = indexarPostagem("Ação comunitária no bairro", "Relato da ação feita pelos moradores.");
+		Long acoes = indexarPostagem("Ações comunitárias no bairro", "Relato das ações feitas pelos moradores.");
+		Long cancoes = indexarPostagem("Canções do festival", "As canções escolhidas pelo público.");
+
+		assertTrue(buscar("acao").containsAll(List.of(acao, acoes)));
+		assertTrue(buscar("ação").containsAll(List.of(acao, acoes)));
+		assertTrue(buscar("acoes").contains(acoes));
+		assertTrue(buscar("ações").containsAll(List.of(acao, acoes)));
+		/*A palavra acentuada encontra a grafia sem acentos e vice-versa, e o singular continua encontrando o plural.*/
+		assertTrue(buscar("canção").contains(cancoes));
+		assertTrue(buscar("cancoes").contains(cancoes));
+
+	}
+
+	@Test
+	@DisplayName("Ordenar a busca pela relevância, com o título valendo mais que o texto")
+	public void deveOrdenarBuscaPelaRelevancia() throws Exception {
+
+		Long noTexto = indexarPostagem("Passeio no zoológico", "Vimos um hipopótamo tomando sol perto do lago.");
+		Long noTitulo = indexarPostagem("O hipopótamo do zoológico", "Passeio de domingo com a família.");
+
+		assertEquals(List.of(noTitulo, noTexto), buscar("hipopotamo"));
+
+	}
+
+	@Test
+	@DisplayName("Listar as Postagens de um Tema com uma única consulta")
+	public void deveListarPostagensDoTemaComUmaConsulta() {
+		assertEquals(1, contarConsultas("/temas/" + temaId + "/postagens"));
+	}
+
+	@Test
+	@DisplayName("Listar as Postagens de um Usuário com uma única consulta")
+	public void deveListarPostagensDoUsuarioComUmaConsulta() {
+		assertEquals(1, contarConsultas("/usuarios/" + usuarioId + "/postagens"));
+	}
+
+	@Test
+	@DisplayName("Responder 304 Not Modified nas páginas de Postagens sem carregar as Postagens")
+	public void deveResponderNaoModificadoNasPaginasSemCarregarPostagens() {
+
+		for (String endereco : List.of("/postagens?tamanho=6", "/temas/" + temaId + "/postagens",
+				"/usuarios/" + usuarioId + "/postagens")) {
+
+			assertEquals(1, contarConsultasCondicionais(endereco), endereco);
+			assertEquals(0, statistics.getEntityLoadCount(), endereco);
+			/*Apenas a consulta das versões da página: nenhuma postagem, tema ou usuário é carregado no Hibernate.*/
+
+		}
+
+	}
+
+	@Test
+	@DisplayName("Responder 304 Not Modified na lista de Temas sem contar as Postagens")
+	public void deveResponderNaoModificadoNaListaDeTemas() {
+
+		assertEquals(1, contarConsultasCondicionais("/temas"));
+		/*Apenas a consulta das versões dos temas, sem a consulta de resumo (LEFT JOIN e GROUP BY nas postagens).*/
+
+		String etag = requisicao("/temas").getHeaders().getETag();
+		Long outroTema = temaRepository.findAll().stream().map(Tema::getId)
+				.filter(id -> !id.equals(temaId)).findFirst().orElseThrow();
+
+		Postagem postagem = novaPostagem("Postagem que muda a lista de temas");
+		postagem.setTema(temaRepository.getReferenceById(outroTema));
+		postagemRepository.save(postagem);
+		/*A postagem troca de tema: a quantidade de postagens de dois temas muda, mas o total de postagens não.*/
+
+		HttpHeaders cabecalhos = new HttpHeaders();
+		cabecalhos.setIfNoneMatch(etag);
+		ResponseEntity<String> resposta = requisicao("/temas", cabecalhos);
+
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertNotEquals(etag, resposta.getHeaders().getETag());
+
+	}
+
+	@Test
+	@DisplayName("Buscar várias Postagens pelo id com uma única consulta")
+	public void deveBuscarPostagensEmLoteComUmaConsulta() {
+		assertEquals(1, contarConsultas("/postagens/lote?ids=" + postagemRepository.findAll().stream()
+				.map(postagem -> postagem.getId().toString()).collect(Collectors.joining(","))));
+	}
+
+	@Test
+	@DisplayName("Listar apenas os campos solicitados das Postagens")
+	public void deveListarApenasOsCamposSolicitados() {
+
+		statistics.clear();
+
+		ResponseEntity<String> resposta = requisicao("/postagens?fields=id,titulo,data&tamanho=6");
+
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertTrue(resposta.getBody().contains("\"titulo\""));
+		assertFalse(resposta.getBody().contains("\"texto\""));
+		assertFalse(resposta.getBody().contains("\"tema\""));
+
+		assertEquals(HttpStatus.BAD_REQUEST, requisicao("/postagens?fields=id,senha").getStatusCode());
+
+	}
+
+	@Test
+	@DisplayName("Buscar uma Postagem pelo id no cache a partir da segunda requisição")
+	public void deveBuscarPostagemPeloIdNoCache() {
+
+		Postagem postagem = new Postagem();
+		postagem.setTitulo("Postagem do cache");
+		postagem.setTexto("Postagem criada para conferir o cache de postagens.");
+		postagem.setTema(temaRepository.getReferenceById(temaId));
+		postagem = postagemRepository.save(postagem);
+
+		assertEquals(1, contarConsultas("/postagens/" + postagem.getId()));
+		assertEquals(0, contarConsultas("/postagens/" + postagem.getId()));
+
+		requisicao(HttpMethod.PUT, "/postagens", Map.of("id", postagem.getId(), "titulo", "Postagem do cache alterada",
+				"texto", "A alteração remove a postagem do cache.", "tema", Map.of("id", temaId),
+				"versao", postagem.getVersao()));
+
+		assertTrue(requisicao("/postagens/" + postagem.getId()).getBody().contains("Postagem do cache alterada"));
+
+	}
+
+	@Test
+	@DisplayName("Cadastrar uma Postagem com uma única instrução SQL")
+	public void deveCadastrarPostagemComUmaInstrucao() {
+		assertEquals(1, contarConsultas(HttpMethod.POST, HttpStatus.CREATED, Map.of("titulo", "Postagem cadastrada",
+				"texto", "Cadastro sem consultar o tema antes.", "tema", Map.of("id", temaId))));
+	}
+
+	@Test
+	@DisplayName("Atualizar uma Postagem sem consultá-la antes do UPDATE")
+	public void deveAtualizarPostagemSemConsultarAntes() {
+
+		Postagem postagem = new Postagem();
+		postagem.setTitulo("Postagem para atualizar");
+		postagem.setTexto("Postagem criada para contar as instruções da atualização.");
+		postagem.setTema(temaRepository.getReferenceById(temaId));
+		postagem = postagemRepository.save(postagem);
+
+		assertEquals(2, contarConsultas(HttpMethod.PUT, HttpStatus.OK, Map.of("id", postagem.getId(),
+				"titulo", "Postagem atualizada", "texto", "Atualização sem consultar a postagem antes.",
+				"tema", Map.of("id", temaId), "usuario", Map.of("id", usuarioId), "versao", postagem.getVersao())));
+		/*O UPDATE, que confere a versão, e o SELECT da postagem gravada, devolvida na resposta.*/
+
+	}
+
+	@Test
+	@DisplayName("Atualizar uma Postagem e devolver a Postagem gravada")
+	public void deveDevolverPostagemAtualizada() throws Exception {
+
+		Postagem postagem = novaPostagem("Postagem para o PUT");
+
+		ResponseEntity<String> resposta = requisicao(HttpMethod.PUT, "/postagens", Map.of("id", postagem.getId(),
+				"titulo", "Título alterado pelo PUT", "texto", "Texto alterado pelo PUT.",
+				"tema", Map.of("id", temaId), "usuario", Map.of("id", usuarioId), "versao", postagem.getVersao()));
+
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+
+		JsonNode corpo = objectMapper.readTree(resposta.getBody());
+		Postagem gravada = postagemRepository.findById(postagem.getId()).orElseThrow();
+
+		assertEquals("Título alterado pelo PUT", corpo.get("titulo").asText());
+		assertEquals(gravada.getVersao(), corpo.get("versao").asLong());
+		assertEquals(postagem.getVersao() + 1, gravada.getVersao());
+		assertEquals(temaRepository.findById(temaId).orElseThrow().getDescricao(),
+				corpo.get("tema").get("descricao").asText());
+		assertTrue(corpo.get("usuario").hasNonNull("nome"));
+		/*O corpo enviado trazia apenas os ids do tema e do usuário: a resposta traz os dois completos.*/
+
+	}
+
+	@Test
+	@DisplayName("Responder 304 Not Modified para uma Postagem que o cliente já tem")
+	public void deveResponderNaoModificadoNaPostagem() {
+
+		Postagem postagem = novaPostagem("Postagem condicional");
+		ResponseEntity<String> resposta = requisicao("/postagens/" + postagem.getId());
+
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		String etag = resposta.getHeaders().getETag();
+		long ultimaAlteracao = resposta.getHeaders().getLastModified();
+		assertNotNull(etag);
+		assertNotEquals(-1, ultimaAlteracao);
+
+		HttpHeaders cabecalhos = new HttpHeaders();
+		cabecalhos.setIfNoneMatch(etag);
+		resposta = requisicao("/postagens/" + postagem.getId(), cabecalhos);
+		assertEquals(HttpStatus.NOT_MODIFIED, resposta.getStatusCode());
+		assertNull(resposta.getBody());
+
+		cabecalhos = new HttpHeaders();
+		cabecalhos.setIfModifiedSince(ultimaAlteracao);
+		assertEquals(HttpStatus.NOT_MODIFIED, requisicao("/postagens/" + postagem.getId(), cabecalhos).getStatusCode());
+
+		cabecalhos = new HttpHeaders();
+		cabecalhos.setIfModifiedSince(ultimaAlteracao - 60_000);
+		assertEquals(HttpStatus.OK, requisicao("/postagens/" + postagem.getId(), cabecalhos).getStatusCode());
+		/*A cópia do cliente é de antes da última alteração: a postagem é enviada novamente.*/
+
+	}
+
+	@Test
+	@DisplayName("Mudar o ETag de uma Postagem depois da atualização")
+	public void deveMudarEtagDaPostagemAtualizada() {
+
+		Postagem postagem = novaPostagem("Postagem do ETag");
+		String etag = requisicao("/postagens/" + postagem.getId()).getHeaders().getETag();
+
+		assertEquals(HttpStatus.OK, requisicao(HttpMethod.PUT, "/postagens", Map.of("id", postagem.getId(),
+				"titulo", "Postagem do ETag alterada", "texto", "Texto alterado para mudar o ETag.",
+				"tema", Map.of("id", temaId), "usuario", Map.of("id", usuarioId), "versao", postagem.getVersao()))
+				.getStatusCode());
+
+		HttpHeaders cabecalhos = new HttpHeaders();
+		cabecalhos.setIfNoneMatch(etag);
+		ResponseEntity<String> resposta = requisicao("/postagens/" + postagem.getId(), cabecalhos);
+
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertNotEquals(etag, resposta.getHeaders().getETag());
+		assertTrue(resposta.getBody().contains("Postagem do ETag alterada"));
+
+	}
+
+	@Test
+	@DisplayName("Procurar Temas pela descrição sem usar o %, o _ e a \\ como curingas do LIKE")
+	public void deveProcurarTemasPeloTextoDaDescricao() throws Exception {
+
+		for (String descricao : List.of("Desconto de 50%", "Desconto de 50 reais", "nota_1", "notaX1", "pasta\\temas",
+				"pastatemas")) {
+			Tema tema = new Tema();
+			tema.setDescricao(descricao);
+			temaRepository.save(tema);
+		}
+
+		assertEquals(List.of("nota_1"), descricoes("/temas/descricao/nota_1"));
+		assertEquals(List.of("nota_1"), descricoes("/temas/descricao/nota_1?fields=id,descricao"));
+
+		for (String descricao : List.of("de 50%", "nota_1", "a\\t")) {
+			List<TemaResumo> resumos = temaRepository.findAllResumosByDescricao(descricao);
+			assertEquals(1, resumos.size(), descricao);
+			TemaResumo encontrado = resumos.get(0);
+			assertTrue(encontrado.getDescricao().contains(descricao));
+
+			List<VersaoTema> versoes = temaRepository.findAllVersoesByDescricao(descricao);
+			assertEquals(1, versoes.size(), descricao);
+			assertTrue(versoes.get(0).assinatura().startsWith(encontrado.getId() + "|" + encontrado.getDescricao() + "|"));
+
+			assertEquals(List.of(Map.of("descricao", encontrado.getDescricao())),
+					temaRepository.findCampos(Set.of("descricao"), descricao));
+		}
+		/*Sem o escape, "de 50%" também encontraria "Desconto de 50 reais", o _ de "nota_1" aceitaria qualquer caractere e
+		 * "a\\t" encontraria "pastatemas", nas consultas do TemaRepository e na da Criteria API (fields). O % e a \\ são
+		 * conferidos direto no TemaRepository, porque o firewall do Spring Security recusa os dois codificados no endereço.*/
+
+	}
+
+	private List<String> descricoes(String endereco) throws Exception {
+
+		ResponseEntity<String> resposta = requisicao(endereco);
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+
+		return objectMapper.readTree(resposta.getBody()).findValuesAsText("descricao");
+
+	}
+
+	@Test
+	@DisplayName("Responder 304 Not Modified para um Tema que o cliente já tem, até ele ser alterado")
+	public void deveResponderNaoModificadoNoTema() {
+
+		Tema tema = new Tema();
+		tema.setDescricao("Tema condicional");
+		tema = temaRepository.save(tema);
+
+		ResponseEntity<String> resposta = requisicao("/temas/" + tema.getId());
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		String etag = resposta.getHeaders().getETag();
+		assertNotNull(etag);
+
+		HttpHeaders cabecalhos = new HttpHeaders();
+		cabecalhos.setIfNoneMatch(etag);
+		assertEquals(HttpStatus.NOT_MODIFIED, requisicao("/temas/" + tema.getId(), cabecalhos).getStatusCode());
+
+		assertEquals(HttpStatus.CREATED, requisicao(HttpMethod.PUT, "/temas",
+				Map.of("id", tema.getId(), "descricao", "Tema condicional alterado")).getStatusCode());
+
+		resposta = requisicao("/temas/" + tema.getId(), cabecalhos);
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertNotEquals(etag, resposta.getHeaders().getETag());
+		/*A descrição faz parte do ETag do tema: depois da alteração, a cópia do cliente não vale mais.*/
+
+	}
+
+	@Test
+	@DisplayName("Atualizar parcialmente uma Postagem")
+	public void deveAtualizarParcialmente() throws Exception {
+
+		Postagem postagem = novaPostagem("Postagem para o PATCH");
+
+		HttpResponse<String> resposta = patch(postagem.getId(), Map.of("titulo", "Título alterado pelo PATCH",
+				"versao", postagem.getVersao()));
+
+		assertEquals(HttpStatus.OK.value(), resposta.statusCode());
+
+		Postagem atualizada = postagemRepository.findById(postagem.getId()).orElseThrow();
+		assertEquals("Título alterado pelo PATCH", atualizada.getTitulo());
+		assertEquals(postagem.getTexto(), atualizada.getTexto());
+		assertEquals(postagem.getVersao() + 1, atualizada.getVersao());
+		/*Apenas o título foi enviado: o texto continua o mesmo e a versão aumenta.*/
+
+	}
+
+	@Test
+	@DisplayName("Não deve atualizar uma Postagem com uma versão desatualizada ou sem a versão")
+	public void naoDeveAtualizarComVersaoDesatualizada() throws Exception {
+
+		Postagem postagem = novaPostagem("Postagem da versão");
+		Long versaoLida = postagem.getVersao();
+
+		assertEquals(HttpStatus.OK.value(), patch(postagem.getId(), Map.of("texto", "Primeira alteração da postagem.",
+				"versao", versaoLida)).statusCode());
+
+		assertEquals(HttpStatus.CONFLICT.value(), patch(postagem.getId(), Map.of("texto",
+				"Alteração feita sobre a versão antiga.", "versao", versaoLida)).statusCode());
+		assertEquals(HttpStatus.CONFLICT, requisicao(HttpMethod.PUT, "/postagens", Map.of("id", postagem.getId(),
+				"titulo", "Postagem da versão", "texto", "Alteração feita sobre a versão antiga.",
+				"tema", Map.of("id", temaId), "versao", versaoLida)).getStatusCode());
+		/*A versão lida antes da primeira alteração não é mais a atual.*/
+
+		assertEquals(HttpStatus.BAD_REQUEST.value(), patch(postagem.getId(), Map.of("texto",
+				"Alteração sem informar a versão.")).statusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, requisicao(HttpMethod.PUT, "/postagens", Map.of("id", postagem.getId(),
+				"titulo", "Postagem da versão", "texto", "Alteração sem informar a versão.",
+				"tema", Map.of("id", temaId))).getStatusCode());
+
+		assertEquals("Primeira alteração da postagem.",
+				postagemRepository.findById(postagem.getId()).orElseThrow().getTexto());
+
+	}
+
+	@Test
+	@DisplayName("Não deve atualizar parcialmente uma Postagem com um texto em branco")
+	public void naoDeveAtualizarParcialmenteComTextoEmBranco() throws Exception {
+
+		Postagem postagem = novaPostagem("Postagem do texto em branco");
+
+		assertEquals(HttpStatus.BAD_REQUEST.value(), patch(postagem.getId(), Map.of("texto", "            ",
+				"versao", postagem.getVersao())).statusCode());
+		assertEquals(HttpStatus.BAD_REQUEST.value(), patch(postagem.getId(), Map.of("titulo", "          ",
+				"versao", postagem.getVersao())).statusCode());
+		/*Os espaços atendem ao tamanho mínimo, mas um título ou texto enviado não pode ficar em branco.*/
+
+		assertEquals(postagem.getTexto(), postagemRepository.findById(postagem.getId()).orElseThrow().getTexto());
+
+	}
+
+	@Test
+	@DisplayName("Consultar Postagens em lote na ordem dos ids solicitados")
+	public void deveConsultarPostagensEmLote() throws Exception {
+
+		Long primeira = novaPostagem("Postagem do lote 1").getId();
+		Long segunda = novaPostagem("Postagem do lote 2").getId();
+		Long terceira = novaPostagem("Postagem do lote 3").getId();
+		Long inexistente = Long.MAX_VALUE;
+
+		List<Long> ids = List.of(terceira, inexistente, primeira, terceira, segunda);
+		/*A ordem é diferente da ordem de cadastro, com um id inexistente e um id repetido.*/
+
+		ResponseEntity<String> consulta = requisicao("/postagens/lote?ids=" + ids.stream()
+				.map(String::valueOf).collect(Collectors.joining(",")));
+		ResponseEntity<String> consultaPeloCorpo = testRestTemplate.withBasicAuth(USUARIO, SENHA)
+				.exchange("/postagens/lote/consulta", HttpMethod.POST, new HttpEntity<>(ids), String.class);
+
+		for (ResponseEntity<String> resposta : List.of(consulta, consultaPeloCorpo)) {
+
+			assertEquals(HttpStatus.OK, resposta.getStatusCode());
+
+			JsonNode corpo = objectMapper.readTree(resposta.getBody());
+			List<Long> encontradas = new ArrayList<>();
+			corpo.get("postagens").forEach(postagem -> encontradas.add(postagem.get("id").asLong()));
+			List<Long> naoEncontradas = new ArrayList<>();
+			corpo.get("naoEncontradas").forEach(id -> naoEncontradas.add(id.asLong()));
+
+			assertEquals(List.of(terceira, primeira, segunda), encontradas);
+			assertEquals(List.of(inexistente), naoEncontradas);
+			/*O id repetido aparece uma única vez, na posição da primeira ocorrência.*/
+
+		}
+
+	}
+
+	@Test
+	@DisplayName("Não deve consultar em lote mais ids do que o máximo")
+	public void naoDeveConsultarLoteAcimaDoMaximo() {
+
+		List<Long> ids = LongStream.rangeClosed(1, maximoIdsLote + 1).boxed().toList();
+
+		assertEquals(HttpStatus.BAD_REQUEST, requisicao("/postagens/lote?ids=" + ids.stream()
+				.map(String::valueOf).collect(Collectors.joining(","))).getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST, testRestTemplate.withBasicAuth(USUARIO, SENHA)
+				.exchange("/postagens/lote/consulta", HttpMethod.POST, new HttpEntity<>(ids), String.class)
+				.getStatusCode());
+
+		List<Long> repetidos = new ArrayList<>(ids.subList(0, maximoIdsLote));
+		repetidos.add(1L);
+		assertEquals(HttpStatus.OK, testRestTemplate.withBasicAuth(USUARIO, SENHA)
+				.exchange("/postagens/lote/consulta", HttpMethod.POST, new HttpEntity<>(repetidos), String.class)
+				.getStatusCode());
+		/*O limite vale para os ids diferentes: um id repetido não conta duas vezes.*/
+
+	}
+
+	@Test
+	@DisplayName("Excluir um Tema em segundo plano e acompanhar o andamento")
+	public void deveExcluirTemaEmSegundoPlano() throws Exception {
+
+		Tema tema = new Tema();
+		tema.setDescricao("Tema excluído em segundo plano");
+		tema = temaRepository.save(tema);
+
+		for (int i = 0; i < 3; i++) {
+			Postagem postagem = new Postagem();
+			postagem.setTitulo("Postagem do tema excluído " + i);
+			postagem.setTexto("Postagem apagada junto com o tema.");
+			postagem.setTema(tema);
+			postagemRepository.save(postagem);
+		}
+
+		ResponseEntity<String> resposta = requisicao(HttpMethod.DELETE, "/temas/" + tema.getId() + "?segundoPlano=true",
+				null);
+
+		assertEquals(HttpStatus.ACCEPTED, resposta.getStatusCode());
+		String andamento = resposta.getHeaders().getLocation().toString();
+		assertEquals("/temas/exclusoes/" + tema.getId(), andamento);
+		assertEquals(3, objectMapper.readTree(resposta.getBody()).get("total").asLong());
+
+		JsonNode exclusao = objectMapper.readTree(requisicao(andamento).getBody());
+
+		for (int tentativa = 0; tentativa < 100 && "EM_ANDAMENTO".equals(exclusao.get("situacao").asText());
+				tentativa++) {
+			Thread.sleep(100);
+			exclusao = objectMapper.readTree(requisicao(andamento).getBody());
+		}
+		/*O cliente consulta o endereço do cabeçalho Location até a exclusão terminar.*/
+
+		assertEquals("CONCLUIDA", exclusao.get("situacao").asText());
+		assertEquals(3, exclusao.get("removidas").asLong());
+		assertFalse(temaRepository.existsById(tema.getId()));
+		assertEquals(0, postagemRepository.countByTemaId(tema.getId()));
+
+	}
+
+	@Test
+	@DisplayName("Responder 404 para uma exclusão de Tema desconhecida")
+	public void naoDeveEncontrarExclusaoDesconhecida() {
+
+		assertEquals(HttpStatus.NOT_FOUND, requisicao("/temas/exclusoes/" + Long.MAX_VALUE).getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, requisicao(HttpMethod.DELETE,
+				"/temas/" + Long.MAX_VALUE + "?segundoPlano=true", null).getStatusCode());
+
+	}
+
+	@Test
+	@DisplayName("Exportar as Postagens em NDJSON, uma Postagem por linha")
+	public void deveExportarPostagensEmNdjson() throws Exception {
+
+		Postagem postagem = novaPostagem("Postagem exportada");
+
+		HttpResponse<byte[]> resposta = exportar(null);
+
+		assertEquals(HttpStatus.OK.value(), resposta.statusCode());
+		assertTrue(resposta.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElseThrow()
+				.startsWith(MediaType.APPLICATION_NDJSON_VALUE));
+		assertTrue(resposta.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+
+		List<JsonNode> linhas = new ArrayList<>();
+		for (String linha : new String(resposta.body(), StandardCharsets.UTF_8).split("\n"))
+			linhas.add(objectMapper.readTree(linha));
+
+		assertEquals(postagemRepository.count(), linhas.size());
+
+		JsonNode exportada = linhas.stream()
+				.filter(linha -> linha.get("id").asLong() == postagem.getId())
+				.findFirst().orElseThrow();
+
+		assertEquals("Postagem exportada", exportada.get("titulo").asText());
+		assertEquals(postagem.getTexto(), exportada.get("texto").asText());
+		assertEquals(postagem.getVersao(), exportada.get("versao").asLong());
+		assertTrue(exportada.hasNonNull("data"));
+		assertEquals(temaId, exportada.get("tema").get("id").asLong());
+		assertTrue(exportada.get("tema").hasNonNull("descricao"));
+		/*Cada linha é a postagem no mesmo formato do GET /postagens/{id}, com o tema dentro dela.*/
+
+	}
+
+	@Test
+	@DisplayName("Exportar as Postagens compactadas quando o cliente aceita gzip")
+	public void deveExportarPostagensCompactadas() throws Exception {
+
+		novaPostagem("Postagem exportada com gzip");
+
+		HttpResponse<byte[]> compactada = exportar("gzip, deflate");
+		HttpResponse<byte[]> original = exportar(null);
+
+		assertEquals(HttpStatus.OK.value(), compactada.statusCode());
+		assertEquals("gzip", compactada.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElseThrow());
+		assertTrue(compactada.headers().allValues(HttpHeaders.VARY).stream()
+				.anyMatch(valor -> valor.contains(HttpHeaders.ACCEPT_ENCODING)));
+
+		try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(compactada.body()))) {
+			assertEquals(new String(original.body(), StandardCharsets.UTF_8),
+					new String(entrada.readAllBytes(), StandardCharsets.UTF_8));
+		}
+		/*Descompactado, o corpo é igual ao da exportação sem gzip.*/
+
+	}
+
+	@Test
+	@DisplayName("Importar Postagens em um array JSON")
+	public void deveImportarPostagensEmArrayJson() throws Exception {
+
+		JsonNode resultado = importar(MediaType.APPLICATION_JSON, "[" + registroImportacao("Importada do array 1", temaId)
+				+ "," + registroImportacao("Importada do array 2", temaId) + "]");
+
+		assertEquals(2, resultado.get("importadas").asLong());
+		assertEquals(0, resultado.get("rejeitadas").asLong());
+
+		Postagem importada = postagemRepository.findAllByTituloContainingIgnoreCase("Importada do array 1").get(0);
+		assertEquals(0, importada.getVersao());
+		assertNotEquals(999_999L, importada.getId());
+		/*O id e a versão enviados no registro são ignorados.*/
+
+	}
+
+	@Test
+	@DisplayName("Importar Postagens em NDJSON e detalhar os registros rejeitados")
+	public void deveImportarPostagensEmNdjson() throws Exception {
+
+		String corpo = String.join("\n",
+				registroImportacao("Importada do NDJSON", temaId),
+				registroImportacao("Tema inexistente na importação", Long.MAX_VALUE),
+				"{\"titulo\": \"Usuário inexistente na importação\", \"texto\": \"O usuário desta postagem não existe.\", "
+						+ "\"tema\": {\"id\": " + temaId + "}, \"usuario\": {\"id\": " + Long.MAX_VALUE + "}}",
+				registroImportacao("Cur", temaId));
+
+		JsonNode resultado = importar(MediaType.APPLICATION_NDJSON, corpo);
+
+		assertEquals(1, resultado.get("importadas").asLong());
+		assertEquals(3, resultado.get("rejeitadas").asLong());
+
+		Map<Long, String> erros = new HashMap<>();
+		resultado.get("erros").forEach(erro -> erros.put(erro.get("linha").asLong(), erro.get("mensagem").asText()));
+
+		assertEquals(Map.of(2L, "Tema não existe!", 3L, "Usuário não existe!",
+				4L, "O atributo título deve conter no mínimo 5 e no máximo 100 caracteres"), erros);
+		assertEquals(1, postagemRepository.findAllByTituloContainingIgnoreCase("Importada do NDJSON").size());
+
+	}
+
+	@Test
+	@DisplayName("Detalhar no máximo ERROS_MAXIMOS registros rejeitados na importação")
+	public void deveLimitarOsErrosDaImportacao() throws Exception {
+
+		int registros = ResultadoImportacao.ERROS_MAXIMOS + 5;
+		String corpo = IntStream.range(0, registros).mapToObj(i -> "{\"titulo\": \"x\"}")
+				.collect(Collectors.joining("\n"));
+
+		JsonNode resultado = importar(MediaType.APPLICATION_NDJSON, corpo);
+
+		assertEquals(0, resultado.get("importadas").asLong());
+		assertEquals(registros, resultado.get("rejeitadas").asLong());
+		assertEquals(ResultadoImportacao.ERROS_MAXIMOS, resultado.get("erros").size());
+
+	}
+
+	@Test
+	@DisplayName("Excluir um Tema e as suas Postagens sem carregá-los")
+	public void deveExcluirTemaSemCarregarPostagens() {
+
+		Tema tema = new Tema();
+		tema.setDescricao("Tema para excluir");
+		tema = temaRepository.save(tema);
+
+		for (int i = 0; i < 5; i++) {
+			Postagem postagem = new Postagem();
+			postagem.setTitulo("Postagem do tema excluído " + i);
+			postagem.setTexto("Postagem apagada junto com o tema.");
+			postagem.setTema(tema);
+			postagemRepository.save(postagem);
+		}
+
+		statistics.clear();
+
+		assertEquals(HttpStatus.NO_CONTENT,
+				requisicao(HttpMethod.DELETE, "/temas/" + tema.getId(), null).getStatusCode());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, postagemRepository.countByTemaId(tema.getId()));
+		assertFalse(temaRepository.existsById(tema.getId()));
+
+	}
+
+	@Test
+	@DisplayName("Não deve cadastrar uma Postagem com um Tema que não existe")
+	public void naoDeveCadastrarPostagemComTemaInexistente() {
+
+		ResponseEntity<String> resposta = requisicao(HttpMethod.POST, "/postagens", Map.of("titulo", "Tema inexistente",
+				"texto", "O tema desta postagem não existe.", "tema", Map.of("id", Long.MAX_VALUE)));
+
+		assertEquals(HttpStatus.BAD_REQUEST, resposta.getStatusCode());
+
+	}
+
+	private long contarConsultas(String endereco) {
+
+		statistics.clear();
+
+		ResponseEntity<String> resposta = requisicao(endereco);
+
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+
+		return statistics.getPrepareStatementCount();
+
+	}
+
+	private long contarConsultasCondicionais(String endereco) {
+
+		HttpHeaders cabecalhos = new HttpHeaders();
+		cabecalhos.setIfNoneMatch(requisicao(endereco).getHeaders().getETag());
+
+		statistics.clear();
+
+		assertEquals(HttpStatus.NOT_MODIFIED, requisicao(endereco, cabecalhos).getStatusCode(), endereco);
+
+		return statistics.getPrepareStatementCount();
+
+	}
+
+	private long contarConsultas(HttpMethod metodo, HttpStatus esperado, Map<String, Object> corpo) {
+
+		statistics.clear();
+
+		ResponseEntity<String> resposta = requisicao(metodo, "/postagens", corpo);
+
+		assertEquals(esperado, resposta.getStatusCode());
+
+		return statistics.getPrepareStatementCount();
+
+	}
+
+	private Long indexarPostagem(String titulo, String texto) {
+
+		Postagem postagem = new Postagem();
+		postagem.setTitulo(titulo);
+		postagem.setTexto(texto);
+		postagem.setTema(temaRepository.getReferenceById(temaId));
+		postagem = postagemRepository.save(postagem);
+		buscaPostagemService.indexar(postagem);
+
+		return postagem.getId();
+
+	}
+
+	private List<Long> buscar(String termo) throws Exception {
+
+		ResponseEntity<String> resposta = requisicao("/postagens/busca?termo=" + termo);
+
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+
+		List<Long> ids = new ArrayList<>();
+		objectMapper.readTree(resposta.getBody()).get("conteudo").forEach(postagem -> ids.add(postagem.get("id").asLong()));
+
+		return ids;
+
+	}
+
+	private Postagem novaPostagem(String titulo) {
+
+		Postagem postagem = new Postagem();
+		postagem.setTitulo(titulo);
+		postagem.setTexto("Postagem criada para conferir a atualização.");
+		postagem.setTema(temaRepository.getReferenceById(temaId));
+
+		return postagemRepository.save(postagem);
+
+	}
+
+	private JsonNode importar(MediaType tipo, String corpo) throws Exception {
+
+		HttpHeaders cabecalhos = new HttpHeaders();
+		cabecalhos.setContentType(tipo);
+
+		ResponseEntity<String> resposta = testRestTemplate.withBasicAuth(USUARIO, SENHA)
+			.exchange("/postagens/lote", HttpMethod.POST, new HttpEntity<>(corpo, cabecalhos), String.class);
+
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+
+		return objectMapper.readTree(resposta.getBody());
+
+	}
+
+	private String registroImportacao(String titulo, Long tema) {
+		return "{\"id\": 999999, \"versao\": 7, \"titulo\": \"" + titulo + "\", "
+				+ "\"texto\": \"Postagem criada pela importação em lote.\", \"tema\": {\"id\": " + tema + "}}";
+	}
+
+	private HttpResponse<byte[]> exportar(String acceptEncoding) throws Exception {
+		/*Feita com o HttpClient do Java, que devolve o corpo como foi enviado, sem descompactar o gzip.*/
+		HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(testRestTemplate.getRootUri() + "/postagens/export"))
+				.header(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+						.encodeToString((USUARIO + ":" + SENHA).getBytes(StandardCharsets.UTF_8)));
+
+		if (acceptEncoding != null)
+			requisicao.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+
+		return HttpClient.newHttpClient().send(requisicao.GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+
+	}
+
+	private HttpResponse<String> patch(Long id, Map<String, Object> corpo) throws Exception {
+		/*O TestRestTemplate usa o HttpURLConnection do Java, que não envia o método PATCH, então a requisição é feita com o
+		 * HttpClient do Java.*/
+		HttpRequest requisicao = HttpRequest.newBuilder(URI.create(testRestTemplate.getRootUri() + "/postagens/" + id))
+				.header(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+						.encodeToString((USUARIO + ":" + SENHA).getBytes(StandardCharsets.UTF_8)))
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.method(HttpMethod.PATCH.name(), HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(corpo)))
+				.build();
+
+		return HttpClient.newHttpClient().send(requisicao, HttpResponse.BodyHandlers.ofString());
+
+	}
+
+	private ResponseEntity<String> requisicao(String endereco) {
+		return requisicao(HttpMethod.GET, endereco, null);
+	}
+
+	private ResponseEntity<String> requisicao(String endereco, HttpHeaders cabecalhos) {
+		return testRestTemplate
+			.withBasicAuth(USUARIO, SENHA)
+			.exchange(endereco, HttpMethod.GET, new HttpEntity<>(cabecalhos), String.class);
+	}
+
+	private ResponseEntity<String> requisicao(HttpMethod metodo, String endereco, Map<String, Object> corpo) {
+		return testRestTemplate
+			.withBasicAuth(USUARIO, SENHA)
+			.exchange(endereco, metodo, corpo == null ? null : new HttpEntity<>(corpo), String.class);
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.generation.blogpessoal.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.generation.blogpessoal.model.Tema;
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.TemaRepository;
+import com.generation.blogpessoal.service.UsuarioService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("cache")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+/*O perfil cache (src/test/resources/application-cache.properties) liga o cache de segundo nível e o cache de consultas
+ * do Hibernate, com a mesma configuração dos perfis dev e prod, em um Banco de dados H2 separado do usado pelos outros
+ * testes. Os testes conferem, pelas estatísticas do Hibernate, que os temas são lidos do cache.*/
+public class TemaControllerTest {
+
+	private static final String USUARIO = "cache_temas@email.com.br";
+	private static final String SENHA = "cache12345";
+
+	@Autowired
+	private TestRestTemplate testRestTemplate;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private TemaRepository temaRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private Long temaId;
+
+	@BeforeAll
+	void start() {
+
+		usuarioService.cadastrarUsuario(new Usuario(0L, "Cache dos Temas", USUARIO, SENHA, "-"));
+
+		Tema tema = new Tema();
+		tema.setDescricao("Tema do cache");
+		temaId = temaRepository.save(tema).getId();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		requisicao(HttpMethod.GET, "/temas", null);
+		/*A primeira requisição autenticada guarda o usuário no cache de autenticação e as listas de temas no cache de
+		 * consultas.*/
+
+	}
+
+	@Test
+	@DisplayName("Ler um Tema do cache de segundo nível")
+	public void deveLerTemaDoCacheDeSegundoNivel() {
+
+		temaRepository.findById(temaId).orElseThrow();
+
+		statistics.clear();
+
+		assertEquals("Tema do cache", temaRepository.findById(temaId).orElseThrow().getDescricao());
+		assertEquals(1, statistics.getSecondLevelCacheHitCount());
+		assertEquals(0, statistics.getPrepareStatementCount());
+		/*O findById roda em uma nova sessão do Hibernate, e o tema vem do cache (região tema), sem SELECT.*/
+
+	}
+
+	@Test
+	@DisplayName("Ler a lista de Temas do cache de consultas até um Tema ser cadastrado")
+	public void deveLerListaDeTemasDoCacheDeConsultas() {
+
+		assertEquals(HttpStatus.OK, requisicao(HttpMethod.GET, "/temas", null).getStatusCode());
+
+		statistics.clear();
+
+		assertEquals(HttpStatus.OK, requisicao(HttpMethod.GET, "/temas", null).getStatusCode());
+		assertEquals(2, statistics.getQueryCacheHitCount());
+		assertEquals(0, statistics.getPrepareStatementCount());
+		/*As versões dos temas (ETag) e os resumos vêm do cache de consultas.*/
+
+		assertEquals(HttpStatus.CREATED, requisicao(HttpMethod.POST, "/temas",
+				Map.of("descricao", "Tema que invalida o cache")).getStatusCode());
+
+		statistics.clear();
+
+		ResponseEntity<String> resposta = requisicao(HttpMethod.GET, "/temas", null);
+
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertTrue(resposta.getBody().contains("Tema que invalida o cache"));
+		assertEquals(0, statistics.getQueryCacheHitCount());
+		/*A tabela tb_temas foi alterada: os resultados guardados são descartados e as consultas voltam ao Banco de dados.*/
+
+	}
+
+	private ResponseEntity<String> requisicao(HttpMethod metodo, String endereco, Map<String, Object> corpo) {
+		return testRestTemplate
+			.withBasicAuth(USUARIO, SENHA)
+			.exchange(endereco, metodo, corpo == null ? null : new HttpEntity<>(corpo), String.class);
+	}
+
+}
@@ -1,8 +1,14 @@
 package com.generation.blogpessoal.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -13,14 +19,22 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.model.UsuarioResumo;
 import com.generation.blogpessoal.repository.UsuarioRepository;
+import com.generation.blogpessoal.security.UserDetailsServiceImpl;
 import com.generation.blogpessoal.service.UsuarioService;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
 /*A anotação @SpringBootTest cria e inicializa o nosso ambiente de testes.*/
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -43,6 +57,15 @@ public class UsuarioControllerTest {
 	@Autowired
 	private UsuarioRepository usuarioRepository;
 
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private UserDetailsServiceImpl userDetailsService;
+
 	@BeforeAll
 	/*A anotação @BeforeAll indica que o Método deve ser executado uma única vez antes de todos os Métodos da Classe, para criar
 	 *  algumas pré-condições necessárias para todos os testes (criar objetos, por exemplo).*/
@@ -111,6 +134,107 @@ public class UsuarioControllerTest {
 		
 	}
 
+	@Test
+	@DisplayName("Não deve aceitar a senha antiga depois da atualização")
+	public void naoDeveAceitarSenhaAntiga() {
+
+		Optional<Usuario> usuarioCadastrado = usuarioService.cadastrarUsuario(new Usuario(0L,
+			"Carla Mendes", "carla_mendes@email.com.br", "carla1234", "-"));
+
+		assertEquals(HttpStatus.OK, testRestTemplate.withBasicAuth("carla_mendes@email.com.br", "carla1234")
+			.exchange("/usuarios", HttpMethod.GET, null, String.class).getStatusCode());
+		/*A primeira requisição guarda a verificação da senha no cache de credenciais.*/
+
+		usuarioService.atualizarUsuario(new Usuario(usuarioCadastrado.get().getId(),
+			"Carla Mendes", "carla_mendes@email.com.br", "carla5678", "-"));
+
+		assertEquals(HttpStatus.UNAUTHORIZED, testRestTemplate.withBasicAuth("carla_mendes@email.com.br", "carla1234")
+			.exchange("/usuarios", HttpMethod.GET, null, String.class).getStatusCode());
+		assertEquals(HttpStatus.OK, testRestTemplate.withBasicAuth("carla_mendes@email.com.br", "carla5678")
+			.exchange("/usuarios", HttpMethod.GET, null, String.class).getStatusCode());
+
+	}
+
+	@Test
+	@DisplayName("Remover o usuário do cache de autenticação depois da atualização")
+	public void deveRemoverUsuarioDoCacheDepoisDaAtualizacao() {
+
+		Optional<Usuario> usuarioCadastrado = usuarioService.cadastrarUsuario(new Usuario(0L,
+			"Bruno Costa", "bruno_costa@email.com.br", "bruno1234", "-"));
+
+		String senhaGuardada = userDetailsService.loadUserByUsername("bruno_costa@email.com.br").getPassword();
+		double consultas = consultasUsuarios();
+
+		assertSame(userDetailsService.loadUserByUsername("bruno_costa@email.com.br").getPassword(), senhaGuardada);
+		assertEquals(consultas, consultasUsuarios());
+		/*A segunda autenticação é atendida pelo cache, sem consultar o Banco de dados.*/
+
+		usuarioService.atualizarUsuario(new Usuario(usuarioCadastrado.get().getId(),
+			"Bruno Costa", "bruno_costa@email.com.br", "bruno5678", "-"));
+
+		String senhaAtualizada = userDetailsService.loadUserByUsername("bruno_costa@email.com.br").getPassword();
+
+		assertEquals(consultas + 1, consultasUsuarios());
+		assertTrue(passwordEncoder.matches("bruno5678", senhaAtualizada));
+		/*Depois da atualização, o usuário é buscado novamente no Banco de dados, já com a nova senha.*/
+
+	}
+
+	@Test
+	@DisplayName("Responder 503 quando a fila do BCrypt estiver cheia")
+	public void deveResponderServidorOcupado() throws InterruptedException {
+
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordEncoder, "executor");
+		CountDownLatch liberar = new CountDownLatch(1);
+
+		try {
+
+			for (int i = 0; i < executor.getMaximumPoolSize(); i++)
+				executor.execute(() -> aguardar(liberar));
+			while (executor.getActiveCount() < executor.getMaximumPoolSize())
+				Thread.sleep(10);
+			while (executor.getQueue().remainingCapacity() > 0)
+				executor.execute(() -> aguardar(liberar));
+			/*Todas as threads do BCrypt ficam ocupadas e a fila fica cheia: a próxima verificação de senha é recusada.*/
+
+			double falhasJwt = falhasJwt();
+
+			ResponseEntity<String> basic = testRestTemplate.withBasicAuth("root@root.com", "senhaerrada")
+				.exchange("/usuarios", HttpMethod.GET, null, String.class);
+			assertEquals(HttpStatus.SERVICE_UNAVAILABLE, basic.getStatusCode());
+			assertNotNull(basic.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+			/*Uma senha que não está no cache de credenciais precisa do BCrypt.*/
+			assertEquals(falhasJwt, falhasJwt());
+			/*A recusa do HTTP Basic não é contada como uma falha de token JWT.*/
+
+			ResponseEntity<UsuarioResumo> cadastro = testRestTemplate.exchange("/usuarios/cadastrar", HttpMethod.POST,
+				new HttpEntity<>(new Usuario(0L, "Ana Lima", "ana_lima@email.com.br", "ana12345", "-")),
+				UsuarioResumo.class);
+			assertEquals(HttpStatus.SERVICE_UNAVAILABLE, cadastro.getStatusCode());
+			assertNotNull(cadastro.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+		} finally {
+			liberar.countDown();
+		}
+
+	}
+
+	private double falhasJwt() {
+		return meterRegistry.find("blogpessoal.jwt.falhas").counters().stream().mapToDouble(Counter::count).sum();
+	}
+
+	private double consultasUsuarios() {
+		return meterRegistry.get("blogpessoal.usuarios.consultas").counter().count();
+	}
+
+	private static void aguardar(CountDownLatch liberar) {
+		try {
+			liberar.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
 	@Test //A anotação @Test indica que o Método deve ser executado como um teste.
 	@DisplayName("Listar todos os Usuários")//Personaliza o nome do teste permitindo inserir um Emoji (tecla Windows + . ) e texto.
 	public void deveMostrarTodosUsuarios() {
@@ -123,12 +247,14 @@ public class UsuarioControllerTest {
 
 		ResponseEntity<String> resposta = testRestTemplate
 		.withBasicAuth("root@root.com", "rootroot")
-			.exchange("/usuarios/all", HttpMethod.GET, null, String.class);
+			.exchange("/usuarios", HttpMethod.GET, null, String.class);
 
 		
 		
 		assertEquals(HttpStatus.OK, resposta.getStatusCode());
 		/*AassertEquals(expected value, actual value) 	Afirma que dois valores são iguais.*/
+		assertFalse(resposta.getBody().contains("senha"));
+		/*A listagem devolve o resumo dos usuários, sem a senha.*/
 
 	}
 
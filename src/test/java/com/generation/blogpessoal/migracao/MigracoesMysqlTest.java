@@ -0,0 +1,61 @@
+package com.generation.blogpessoal.migracao;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/*Migrações de src/main/resources/db/migration/mysql, em um MariaDB embutido (sem Docker), com o mesmo driver do MySQL
+ * usado no perfil dev. O endereço jdbc:mysql faz o Spring escolher a pasta mysql das migrações, e os bancos de dados são
+ * criados pelo createDatabaseIfNotExist, como no perfil dev.*/
+public class MigracoesMysqlTest extends MigracoesTest {
+
+	private static DB mariaDB;
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) throws ManagedProcessException {
+
+		mariaDB = DB.newEmbeddedDB(DBConfigurationBuilder.newBuilder().setPort(0).addArg("--user=root").build());
+		mariaDB.start();
+
+		registry.add("spring.datasource.url", () -> endereco("db_blogpessoal"));
+		registry.add("spring.datasource.driver-class-name", () -> "com.mysql.cj.jdbc.Driver");
+		registry.add("spring.datasource.username", () -> "root");
+		registry.add("spring.datasource.password", () -> "");
+		registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.MySQLDialect");
+
+	}
+
+	@AfterAll
+	static void parar() throws ManagedProcessException {
+		mariaDB.stop();
+	}
+
+	private static String endereco(String banco) {
+		return "jdbc:mysql://localhost:" + mariaDB.getConfiguration().getPort() + "/" + banco + "?createDatabaseIfNotExist=true";
+	}
+
+	@Override
+	protected DataSource bancoDeDadosLegado() {
+		return DataSourceBuilder.create().type(SimpleDriverDataSource.class).url(endereco("legado")).username("root").password("").build();
+	}
+
+	@Override
+	protected String esquemaLegado() {
+		return "db/legado/mysql.sql";
+	}
+
+	@Override
+	protected long proximoIdDasPostagens(JdbcTemplate jdbcTemplate) {
+		return jdbcTemplate.queryForObject("SELECT next_val FROM tb_postagens_seq", Long.class);
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.generation.blogpessoal.migracao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/*Migrações de src/main/resources/db/migration/postgresql, em um PostgreSQL embutido (sem Docker), como no perfil prod.*/
+public class MigracoesPostgresqlTest extends MigracoesTest {
+
+	private static EmbeddedPostgres postgres;
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) throws IOException {
+
+		postgres = EmbeddedPostgres.start();
+
+		registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+		registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "");
+		registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+
+	}
+
+	@AfterAll
+	static void parar() {
+		try {
+			postgres.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	protected DataSource bancoDeDadosLegado() throws SQLException {
+		try (Connection conexao = postgres.getPostgresDatabase().getConnection(); Statement comando = conexao.createStatement()) {
+			comando.execute("CREATE DATABASE legado");
+		}
+		return postgres.getDatabase("postgres", "legado");
+	}
+
+	@Override
+	protected String esquemaLegado() {
+		return "db/legado/postgresql.sql";
+	}
+
+	@Override
+	protected long proximoIdDasPostagens(JdbcTemplate jdbcTemplate) {
+		return jdbcTemplate.queryForObject("SELECT nextval('tb_postagens_seq')", Long.class);
+	}
+
+}
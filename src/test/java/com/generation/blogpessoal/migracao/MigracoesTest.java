@@ -0,0 +1,148 @@
+package com.generation.blogpessoal.migracao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.generation.blogpessoal.model.Postagem;
+import com.generation.blogpessoal.repository.PostagemRepository;
+
+@SpringBootTest
+@ActiveProfiles("migracao")
+/*O perfil migracao (src/test/resources/application-migracao.properties) liga o Flyway, com a mesma configuração do
+ * src/main/resources/application.properties, e troca o ddl-auto por validate: a aplicação só inicia se o esquema criado
+ * pelas migrações for o esperado pelas Entidades. Cada Classe filha inicia um Banco de dados embutido do fornecedor usado
+ * pela aplicação (PostgreSQL no perfil prod, MySQL no perfil dev) e aponta o datasource para ele.*/
+public abstract class MigracoesTest {
+
+	private static final List<String> TABELAS = List.of("tb_postagens", "tb_temas", "tb_usuarios");
+
+	@Autowired
+	private Flyway flyway;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PostagemRepository postagemRepository;
+
+	/*Um segundo Banco de dados, vazio, no mesmo servidor, usado para recriar o esquema de antes das migrações.*/
+	protected abstract DataSource bancoDeDadosLegado() throws Exception;
+
+	/*Esquema criado pelo ddl-auto=update antes das migrações, em src/test/resources/db/legado.*/
+	protected abstract String esquemaLegado();
+
+	/*Primeiro id que o Hibernate recebe da sequência tb_postagens_seq (ou da tabela que a substitui no MySQL).*/
+	protected abstract long proximoIdDasPostagens(JdbcTemplate jdbcTemplate);
+
+	@Test
+	@DisplayName("Aplicar todas as migrações em um Banco de dados vazio")
+	public void deveAplicarTodasAsMigracoes() {
+
+		MigrationInfo[] migracoes = flyway.info().all();
+
+		assertTrue(migracoes.length > 0);
+		for (MigrationInfo migracao : migracoes)
+			assertEquals(MigrationState.SUCCESS, migracao.getState(), migracao.getScript());
+		assertEquals(0, flyway.info().pending().length);
+
+		Postagem postagem = new Postagem();
+		postagem.setTitulo("Postagem da migração");
+		postagem.setTexto("Gravada no esquema criado pelo Flyway");
+
+		assertNotNull(postagemRepository.saveAndFlush(postagem).getId());
+
+	}
+
+	@Test
+	@DisplayName("Migrar um Banco de dados criado pelo ddl-auto=update")
+	public void deveMigrarBancoDeDadosLegado() throws Exception {
+
+		DataSource legado = bancoDeDadosLegado();
+		new ResourceDatabasePopulator(new ClassPathResource(esquemaLegado())).execute(legado);
+
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(legado);
+		jdbcTemplate.update("INSERT INTO tb_temas (descricao) VALUES ('Tema legado')");
+		for (int i = 0; i < 130; i++)
+			jdbcTemplate.update("INSERT INTO tb_postagens (titulo, texto, tema_id) VALUES ('Postagem legada', 'Texto', 1)");
+
+		Flyway.configure().configuration(flyway.getConfiguration()).dataSource(legado).load().migrate();
+		/*Mesma configuração do Flyway da aplicação: o banco de dados é registrado na versão 1 (baseline-on-migrate) e
+		 * recebe apenas o V1_1 e o V2.*/
+
+		assertEquals(esquema(dataSource), esquema(legado));
+		assertTrue(proximoIdDasPostagens(jdbcTemplate) > jdbcTemplate.queryForObject("SELECT MAX(id) FROM tb_postagens", Long.class));
+		assertEquals(130, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_postagens WHERE versao = 0", Integer.class));
+
+	}
+
+	/*Colunas (nome, tipo, tamanho e se aceita nulo), índices e Chaves Estrangeiras de cada tabela, lidos dos metadados
+	 * do JDBC. O esquema do banco de dados migrado a partir do legado deve ser igual ao criado pelas migrações, que foi
+	 * validado pelo Hibernate no início da aplicação.*/
+	private Map<String, TreeSet<String>> esquema(DataSource banco) throws SQLException {
+
+		Map<String, TreeSet<String>> esquema = new TreeMap<>();
+
+		try (Connection conexao = banco.getConnection()) {
+
+			DatabaseMetaData metadados = conexao.getMetaData();
+			String catalogo = conexao.getCatalog();
+			String schema = conexao.getSchema();
+
+			for (String tabela : TABELAS) {
+
+				TreeSet<String> itens = new TreeSet<>();
+
+				try (ResultSet colunas = metadados.getColumns(catalogo, schema, tabela, null)) {
+					while (colunas.next())
+						itens.add("coluna " + colunas.getString("COLUMN_NAME") + " " + colunas.getString("TYPE_NAME") + "("
+								+ colunas.getInt("COLUMN_SIZE") + ") " + colunas.getString("IS_NULLABLE"));
+				}
+
+				try (ResultSet indices = metadados.getIndexInfo(catalogo, schema, tabela, false, false)) {
+					while (indices.next())
+						if (indices.getString("INDEX_NAME") != null && !indices.getString("INDEX_NAME").toLowerCase().endsWith("pkey")
+								&& !indices.getString("INDEX_NAME").equals("PRIMARY"))
+							itens.add("indice " + indices.getString("INDEX_NAME").toLowerCase() + " "
+									+ indices.getString("COLUMN_NAME") + " " + indices.getBoolean("NON_UNIQUE"));
+				}
+
+				try (ResultSet chaves = metadados.getImportedKeys(catalogo, schema, tabela)) {
+					while (chaves.next())
+						itens.add("chave " + chaves.getString("FK_NAME") + " " + chaves.getString("FKCOLUMN_NAME"));
+				}
+
+				esquema.put(tabela, itens);
+
+			}
+
+		}
+
+		return esquema;
+
+	}
+
+}
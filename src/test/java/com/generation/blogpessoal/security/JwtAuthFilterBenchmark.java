@@ -0,0 +1,86 @@
+package com.generation.blogpessoal.security;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+/*Mede o custo que o JwtAuthFilter acrescenta a cada requisição autenticada com um token válido: leitura do token,
+ * busca do usuário (no cache de autenticação, com o UsuarioRepository simulado) e preenchimento do SecurityContext.
+ * A cadeia de filtros seguinte é uma MockFilterChain, que não faz nada.*/
+public class JwtAuthFilterBenchmark {
+
+	private static final String USUARIO = "benchmark@email.com.br";
+
+	private JwtAuthFilter jwtAuthFilter;
+	private String authorization;
+
+	@Setup
+	public void preparar() {
+
+		UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+		when(usuarioRepository.findByUsuario(anyString()))
+				.thenReturn(Optional.of(new Usuario(1L, "Benchmark", USUARIO, "senha12345", "-")));
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(10000, Duration.ofMinutes(5),
+				meterRegistry);
+		ReflectionTestUtils.setField(userDetailsService, "usuarioRepository", usuarioRepository);
+
+		JwtService jwtService = new JwtService(10000, meterRegistry);
+
+		jwtAuthFilter = new JwtAuthFilter();
+		ReflectionTestUtils.setField(jwtAuthFilter, "jwtService", jwtService);
+		ReflectionTestUtils.setField(jwtAuthFilter, "userDetailsService", userDetailsService);
+		ReflectionTestUtils.setField(jwtAuthFilter, "meterRegistry", meterRegistry);
+
+		authorization = "Bearer " + jwtService.generateToken(USUARIO);
+
+	}
+
+	@Benchmark
+	public MockHttpServletResponse doFilterInternal() throws ServletException, IOException {
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/postagens");
+		request.addHeader("Authorization", authorization);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		try {
+			jwtAuthFilter.doFilterInternal(request, response, new MockFilterChain());
+		} finally {
+			SecurityContextHolder.clearContext();
+			/*Cada chamada simula uma nova requisição, então o contexto de segurança preenchido pelo filtro é limpo.*/
+		}
+
+		return response;
+
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.generation.blogpessoal.security;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+/*Mede o custo das operações do JwtService executadas a cada requisição autenticada. Com tamanhoCache = 0 as claims
+ * são descartadas logo após a leitura, então o token é decodificado e a assinatura verificada a cada chamada; com o
+ * cache habilitado, a medição mostra o custo de uma leitura no cache de claims.*/
+public class JwtServiceBenchmark {
+
+	private static final String USUARIO = "benchmark@email.com.br";
+
+	@Param({ "0", "10000" })
+	private long tamanhoCache;
+
+	private JwtService jwtService;
+	private UserDetails userDetails;
+	private String token;
+
+	@Setup
+	public void preparar() {
+		jwtService = new JwtService(tamanhoCache, new SimpleMeterRegistry());
+		userDetails = new User(USUARIO, "", List.of());
+		token = jwtService.generateToken(USUARIO);
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return jwtService.generateToken(USUARIO);
+	}
+
+	@Benchmark
+	public String extractUsername() {
+		return jwtService.extractUsername(token);
+	}
+
+	@Benchmark
+	public Boolean validateToken() {
+		return jwtService.validateToken(token, userDetails);
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.generation.blogpessoal.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*Testa o cache de claims do JwtService sem subir a aplicação. O JwtParser é substituído por um spy, para contar quantas
+ * vezes cada token é decodificado e tem a assinatura verificada.*/
+public class JwtServiceTest {
+
+	private static final String USUARIO = "jwt@email.com.br";
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private JwtService jwtService;
+
+	private JwtParser jwtParser;
+
+	private Cache<String, Claims> claimsCache;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void start() {
+
+		meterRegistry = new SimpleMeterRegistry();
+		jwtService = new JwtService(100, meterRegistry);
+
+		jwtParser = spy((JwtParser) ReflectionTestUtils.getField(jwtService, "jwtParser"));
+		ReflectionTestUtils.setField(jwtService, "jwtParser", jwtParser);
+
+		claimsCache = (Cache<String, Claims>) ReflectionTestUtils.getField(jwtService, "claimsCache");
+
+	}
+
+	@Test
+	@DisplayName("Ler as claims de um token repetido do cache, sem decodificar o token novamente")
+	public void deveLerTokenRepetidoDoCache() {
+
+		String token = jwtService.generateToken(USUARIO);
+
+		for (int i = 0; i < 3; i++)
+			assertEquals(USUARIO, jwtService.extractUsername(token));
+
+		verify(jwtParser, times(1)).parseClaimsJws(token);
+		assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit")
+				.functionCounter().count());
+		assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "miss")
+				.functionCounter().count());
+
+	}
+
+	@Test
+	@DisplayName("Manter um token no cache apenas até o horário de expiração (claim exp)")
+	public void deveExpirarTokenJuntoComAClaimExp() throws Exception {
+
+		String token = jwtService.generateToken(USUARIO);
+		jwtService.extractUsername(token);
+
+		long restante = claimsCache.policy().expireVariably().orElseThrow()
+				.getExpiresAfter(token, TimeUnit.MILLISECONDS).orElseThrow();
+		long ate = jwtService.extractExpiration(token).getTime() - System.currentTimeMillis();
+		assertTrue(Math.abs(restante - ate) < 1000, restante + " ms no cache, " + ate + " ms até a claim exp");
+		/*O generateToken cria tokens válidos por 1 hora, e o token fica no cache pelo mesmo tempo.*/
+
+		Date expiracao = new Date(System.currentTimeMillis() + 2000);
+		String tokenCurto = token(expiracao, chave());
+		assertEquals(USUARIO, jwtService.extractUsername(tokenCurto));
+
+		Thread.sleep(Math.max(0, jwtService.extractExpiration(tokenCurto).getTime() - System.currentTimeMillis()) + 100);
+
+		assertNull(claimsCache.getIfPresent(tokenCurto));
+		assertThrows(ExpiredJwtException.class, () -> jwtService.extractUsername(tokenCurto));
+		verify(jwtParser, times(2)).parseClaimsJws(tokenCurto);
+		/*Depois da claim exp, o token sai do cache: a próxima requisição decodifica o token de novo e o JwtParser recusa o
+		 * token expirado.*/
+
+	}
+
+	@Test
+	@DisplayName("Recusar tokens com assinatura inválida ou expirados, sem guardá-los no cache")
+	public void naoDeveGuardarTokenInvalidoNoCache() {
+
+		String assinaturaInvalida = token(new Date(System.currentTimeMillis() + 60_000),
+				Keys.secretKeyFor(SignatureAlgorithm.HS256));
+		String expirado = token(new Date(System.currentTimeMillis() - 60_000), chave());
+
+		for (int i = 0; i < 2; i++) {
+			assertThrows(SignatureException.class, () -> jwtService.extractUsername(assinaturaInvalida));
+			assertThrows(ExpiredJwtException.class, () -> jwtService.extractUsername(expirado));
+		}
+
+		verify(jwtParser, times(2)).parseClaimsJws(assinaturaInvalida);
+		verify(jwtParser, times(2)).parseClaimsJws(expirado);
+		assertNull(claimsCache.getIfPresent(assinaturaInvalida));
+		assertNull(claimsCache.getIfPresent(expirado));
+		assertEquals(0, claimsCache.estimatedSize());
+		/*Cada tentativa com um token inválido passa pelo JwtParser de novo e é recusada outra vez.*/
+
+	}
+
+	private static Key chave() {
+		return Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtService.SECRET));
+	}
+
+	private static String token(Date expiracao, Key chave) {
+		return Jwts.builder()
+				.setSubject(USUARIO)
+				.setIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+				.setExpiration(expiracao)
+				.signWith(chave, SignatureAlgorithm.HS256).compact();
+	}
+
+}
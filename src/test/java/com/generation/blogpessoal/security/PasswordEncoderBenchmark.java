@@ -0,0 +1,57 @@
+package com.generation.blogpessoal.security;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+/*Mede a validação de uma senha com o BCrypt em diferentes fatores de custo (propriedade blogpessoal.senha.forca), que é
+ * o que cada login e cada requisição com HTTP Basic executa. matchesComFila mede o mesmo custo passando pelo
+ * BoundedPasswordEncoder, para mostrar o acréscimo da fila de criptografia.*/
+public class PasswordEncoderBenchmark {
+
+	private static final String SENHA = "senha12345";
+
+	@Param({ "4", "8", "10", "12" })
+	private int forca;
+
+	private BCryptPasswordEncoder passwordEncoder;
+	private BoundedPasswordEncoder boundedPasswordEncoder;
+	private String senhaCriptografada;
+
+	@Setup
+	public void preparar() {
+		passwordEncoder = new BCryptPasswordEncoder(forca);
+		boundedPasswordEncoder = new BoundedPasswordEncoder(passwordEncoder,
+				Runtime.getRuntime().availableProcessors(), 100, Duration.ofMinutes(1));
+		senhaCriptografada = passwordEncoder.encode(SENHA);
+	}
+
+	@TearDown
+	public void encerrar() {
+		boundedPasswordEncoder.close();
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return passwordEncoder.matches(SENHA, senhaCriptografada);
+	}
+
+	@Benchmark
+	public boolean matchesComFila() {
+		return boundedPasswordEncoder.matches(SENHA, senhaCriptografada);
+	}
+
+}
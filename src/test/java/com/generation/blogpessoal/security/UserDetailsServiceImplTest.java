@@ -0,0 +1,67 @@
+package com.generation.blogpessoal.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.generation.blogpessoal.model.Usuario;
+import com.generation.blogpessoal.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*Testa o cache de autenticação sem subir a aplicação, com o UsuarioRepository simulado, para controlar o momento em que
+ * a consulta ao Banco de dados termina.*/
+public class UserDetailsServiceImplTest {
+
+	private static final String USUARIO = "cache@email.com.br";
+
+	@Test
+	@DisplayName("Não guardar no cache um usuário carregado antes da invalidação")
+	public void naoDeveGuardarCargaInvalidada() throws Exception {
+
+		CountDownLatch consultaIniciada = new CountDownLatch(1);
+		CountDownLatch concluirConsulta = new CountDownLatch(1);
+
+		UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+		when(usuarioRepository.findByUsuario(USUARIO))
+			.thenAnswer(invocacao -> {
+				consultaIniciada.countDown();
+				concluirConsulta.await();
+				return Optional.of(new Usuario(1L, "Cache", USUARIO, "senhaAntiga", "-"));
+			})
+			.thenReturn(Optional.of(new Usuario(1L, "Cache", USUARIO, "senhaNova", "-")));
+		/*A primeira consulta lê os dados de antes da atualização e só termina quando o teste liberar.*/
+
+		UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(100, Duration.ofMinutes(5),
+				new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(userDetailsService, "usuarioRepository", usuarioRepository);
+
+		CompletableFuture<String> carga = CompletableFuture
+			.supplyAsync(() -> userDetailsService.loadUserByUsername(USUARIO).getPassword());
+
+		consultaIniciada.await(5, TimeUnit.SECONDS);
+		userDetailsService.invalidar(USUARIO);
+		/*O UsuarioService invalida o usuário depois de gravar a alteração, enquanto a consulta antiga ainda está em
+		 * andamento.*/
+		concluirConsulta.countDown();
+
+		assertEquals("senhaAntiga", carga.get(5, TimeUnit.SECONDS));
+		assertEquals("senhaNova", userDetailsService.loadUserByUsername(USUARIO).getPassword());
+		verify(usuarioRepository, times(2)).findByUsuario(USUARIO);
+		/*O resultado da consulta antiga não voltou para o cache: a requisição seguinte buscou o usuário novamente.*/
+
+	}
+
+}
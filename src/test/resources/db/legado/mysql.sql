@@ -0,0 +1,7 @@
+-- Esquema criado pelo spring.jpa.hibernate.ddl-auto=update antes das migrações, quando o id das postagens era
+-- AUTO_INCREMENT e a coluna versao ainda não existia. Usado pelo MigracoesMysqlTest.
+create table tb_postagens (id bigint not null auto_increment, data datetime(6), texto varchar(1000), titulo varchar(100), tema_id bigint, usuario_id bigint, primary key (id)) engine=InnoDB;
+create table tb_temas (id bigint not null auto_increment, descricao varchar(255) not null, primary key (id)) engine=InnoDB;
+create table tb_usuarios (id bigint not null auto_increment, foto varchar(5000), nome varchar(255) not null, senha varchar(255), usuario varchar(255) not null, primary key (id)) engine=InnoDB;
+alter table tb_postagens add constraint FKc8fvybwie3ndsogids89ipisk foreign key (tema_id) references tb_temas (id);
+alter table tb_postagens add constraint FK3k9trtonj0f77a84tsoylsw6v foreign key (usuario_id) references tb_usuarios (id);
@@ -0,0 +1,7 @@
+-- Esquema criado pelo spring.jpa.hibernate.ddl-auto=update antes das migrações, quando o id das postagens era
+-- auto-incremento (bigserial) e a coluna versao ainda não existia. Usado pelo MigracoesPostgresqlTest.
+create table tb_postagens (id bigserial not null, data timestamp(6), texto varchar(1000), titulo varchar(100), tema_id bigint, usuario_id bigint, primary key (id));
+create table tb_temas (id bigserial not null, descricao varchar(255) not null, primary key (id));
+create table tb_usuarios (id bigserial not null, foto varchar(5000), nome varchar(255) not null, senha varchar(255), usuario varchar(255) not null, primary key (id));
+alter table tb_postagens add constraint FKc8fvybwie3ndsogids89ipisk foreign key (tema_id) references tb_temas;
+alter table tb_postagens add constraint FK3k9trtonj0f77a84tsoylsw6v foreign key (usuario_id) references tb_usuarios;